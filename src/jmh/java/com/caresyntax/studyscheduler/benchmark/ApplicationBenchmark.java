@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.benchmark;
+
+import com.caresyntax.studyscheduler.StudySchedulerApplication;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base of the benchmarks: starts the application without the web layer on a private
+ * in-memory database and fills it with {@link StudyDataGenerator}.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public abstract class ApplicationBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param("100000")
+    public int studies;
+
+    protected ConfigurableApplicationContext context;
+    protected StudyDataGenerator.Ids ids;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        properties.put("spring.jmx.enabled", false);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(properties());
+        context = new SpringApplicationBuilder(StudySchedulerApplication.class).
+            web(WebApplicationType.NONE).
+            properties(properties).
+            run();
+
+        int rooms = Math.max(5, studies / 50_000);
+        ids = new StudyDataGenerator(context.getBean(JdbcTemplate.class), SEED).
+            generate(studies, Math.max(10, studies / 10), Math.max(5, rooms * 2), rooms);
+        // the in-memory indexes are loaded on refresh, load them again with the generated rows
+        context.publishEvent(new ContextRefreshedEvent(context));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    /**
+     * @return application properties specific to the benchmark
+     */
+    protected Map<String, Object> properties() {
+        return new HashMap<>();
+    }
+
+    protected <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.benchmark;
+
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Room;
+import com.caresyntax.studyscheduler.model.Study;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conflict check of a new study, answered by the interval index or by the database.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConflictCheckBenchmark extends ApplicationBenchmark {
+
+    private static final int CANDIDATES = 1024;
+
+    @Param({"true", "false"})
+    public boolean intervalIndex;
+
+    private StudyRepository studyRepository;
+    private Study[] candidates;
+    private int next;
+
+    @Override
+    protected Map<String, Object> properties() {
+        return Collections.singletonMap("studyscheduler.study.interval-index", intervalIndex);
+    }
+
+    @Setup(Level.Trial)
+    public void createCandidates() {
+        studyRepository = getBean(StudyRepository.class);
+        int days = StudyDataGenerator.days(studies, ids.rooms.size());
+        Random random = new Random(studies);
+        candidates = new Study[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            LocalDateTime start = StudyDataGenerator.FIRST_DAY.plusDays(random.nextInt(days)).
+                atTime(StudyDataGenerator.DAY_START).
+                plusMinutes(5 * random.nextInt(12 * 10));
+            Study study = new Study();
+            study.setStatus(Study.STATUS.planned);
+            study.setStartTime(start);
+            study.setEndTime(start.plusMinutes(StudyDataGenerator.STUDY_MINUTES));
+            study.setPatient(reference(new Patient(), ids.patients.get(random.nextInt(ids.patients.size()))));
+            study.setDoctor(reference(new Doctor(), ids.doctors.get(random.nextInt(ids.doctors.size()))));
+            study.setRoom(reference(new Room(), ids.rooms.get(random.nextInt(ids.rooms.size()))));
+            candidates[i] = study;
+        }
+    }
+
+    @Benchmark
+    public boolean isExistIntersectingStudies() {
+        return studyRepository.isExistIntersectingStudies(candidates[next++ & (CANDIDATES - 1)]);
+    }
+
+    private static <T extends BaseEntity> T reference(T entity, Integer id) {
+        entity.setId(id);
+        return entity;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.benchmark;
+
+import com.caresyntax.studyscheduler.optimizer.OptimizedSchedule;
+import com.caresyntax.studyscheduler.optimizer.SchedulePlanner;
+import com.caresyntax.studyscheduler.optimizer.StudyRequest;
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the schedule optimizer on requests spread over working days, without a database.
+ * A tenth of the requests asks for a particular doctor.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OptimizerBenchmark {
+
+    @Param("10000")
+    public int requests;
+
+    @Param("50")
+    public int rooms;
+
+    @Param("20")
+    public int days;
+
+    private SchedulePlanner planner;
+    private List<StudyRequest> input;
+    private List<Integer> doctorIds;
+    private List<Integer> roomIds;
+    private Set<Integer> patientIds;
+
+    @Setup
+    public void createRequests() {
+        planner = new SchedulePlanner(new StudyIntervalIndex(), StudyDataGenerator.DAY_START, LocalTime.of(18, 0),
+            Duration.ofMinutes(15));
+        int patients = requests / 4;
+        doctorIds = IntStream.rangeClosed(1, rooms + rooms / 5).boxed().collect(Collectors.toList());
+        roomIds = IntStream.rangeClosed(1, rooms).boxed().collect(Collectors.toList());
+        patientIds = new HashSet<>(IntStream.rangeClosed(1, patients).boxed().collect(Collectors.toList()));
+        Random random = new Random(requests);
+        input = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            Integer doctorId = random.nextInt(10) == 0 ? doctorIds.get(random.nextInt(doctorIds.size())) : null;
+            input.add(new StudyRequest(1 + random.nextInt(patients), doctorId, "study " + i,
+                StudyDataGenerator.FIRST_DAY.plusDays(random.nextInt(days)), 15 * (1 + random.nextInt(4))));
+        }
+    }
+
+    @Benchmark
+    public OptimizedSchedule plan() {
+        return planner.plan(input, doctorIds, roomIds, patientIds);
+    }
+}
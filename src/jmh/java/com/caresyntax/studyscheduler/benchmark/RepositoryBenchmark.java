@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.benchmark;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Study;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the repository queries behind the patient search, the patient page and the study list.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryBenchmark extends ApplicationBenchmark {
+
+    private static final int ARGUMENTS = 1024;
+    private static final String[] NAME_QUERIES = {"george", "Davis", "ortega 1", "mar", "Schroeder 42", "xyz"};
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    private PatientRepository patientRepository;
+    private StudyRepository studyRepository;
+    private DoctorRepository doctorRepository;
+    private Integer[] patientIds;
+    private StudyFilter[] dayFilters;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createArguments() {
+        patientRepository = getBean(PatientRepository.class);
+        studyRepository = getBean(StudyRepository.class);
+        doctorRepository = getBean(DoctorRepository.class);
+
+        int days = StudyDataGenerator.days(studies, ids.rooms.size());
+        Random random = new Random(studies);
+        patientIds = new Integer[ARGUMENTS];
+        dayFilters = new StudyFilter[ARGUMENTS];
+        for (int i = 0; i < ARGUMENTS; i++) {
+            patientIds[i] = ids.patients.get(random.nextInt(ids.patients.size()));
+            dayFilters[i] = new StudyFilter();
+            dayFilters[i].setFrom(StudyDataGenerator.FIRST_DAY.plusDays(random.nextInt(days)));
+        }
+    }
+
+    @Benchmark
+    public Page<Patient> findPatientsByName() {
+        return patientRepository.findByName(NAME_QUERIES[next++ % NAME_QUERIES.length], FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<Study> findStudiesByPatientId() {
+        return studyRepository.findByPatientId(patientIds[next++ & (ARGUMENTS - 1)]);
+    }
+
+    @Benchmark
+    public List<StudyRow> findStudiesPage() {
+        return studyRepository.findStudies(dayFilters[next++ & (ARGUMENTS - 1)], null, null, 50);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Study> findAllStudies() {
+        return studyRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Doctor> findAllDoctors() {
+        return doctorRepository.findAll();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.benchmark;
+
+import com.caresyntax.studyscheduler.schedule.ReservationLockManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of reservations that each do some work while holding the locks.
+ * Run with growing thread counts ({@code -t 1}, {@code -t 4}, ...): reservations of distinct doctors and rooms
+ * should scale with the cores, reservations of a single shared doctor should not.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReservationLockBenchmark {
+
+    private static final int WORK = 200;
+
+    @Param({"distinct", "shared"})
+    public String doctors;
+
+    private ReservationLockManager locks;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void createLocks() {
+        locks = new ReservationLockManager(1024);
+    }
+
+    @State(Scope.Thread)
+    public static class Booker {
+
+        private int id;
+
+        @Setup
+        public void assignId(ReservationLockBenchmark benchmark) {
+            id = benchmark.threads.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public void reserve(Booker booker) {
+        int doctorId = "shared".equals(doctors) ? 0 : booker.id;
+        try (ReservationLockManager.Reservation ignored = locks.reserve(booker.id, doctorId, booker.id)) {
+            Blackhole.consumeCPU(WORK);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time from launching the packaged application until it has served the booking form,
+ * which is how long a new instance takes to be of use.
+ * <p>
+ * Needs the jars of <code>./mvnw -P startup package</code> and compares
+ * <ul>
+ * <li><code>jar</code> - the executable jar in the default configuration</li>
+ * <li><code>thin</code> - the thin jar next to its libraries, as the class data sharing archive needs it</li>
+ * <li><code>profile</code> - the thin jar run with the <code>startup</code> Spring profile</li>
+ * <li><code>cds</code> - as <code>profile</code>, with the class data sharing archive</li>
+ * </ul>
+ * The output of the launched applications is appended to <code>target/benchmark/startup.log</code>.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class StartupBenchmark {
+
+    private static final Path TARGET = Paths.get("target");
+    private static final Path STARTUP = TARGET.resolve("startup");
+    private static final String BOOKING_FORM = "/patient/1/study/new";
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    @Param({"jar", "thin", "profile", "cds"})
+    public String launch;
+
+    private List<String> command;
+    private File log;
+    private Process process;
+
+    @Setup
+    public void prepareCommand() throws IOException {
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if ("cds".equals(launch)) command.add("-XX:SharedArchiveFile=" + existing(STARTUP.resolve("application.jsa")));
+        command.add("-jar");
+        command.add("jar".equals(launch) ? executableJar().toString() : existing(STARTUP.resolve("application.jar")).toString());
+        if (!"jar".equals(launch) && !"thin".equals(launch)) command.add("--spring.profiles.active=startup");
+        log = TARGET.resolve("benchmark").resolve("startup.log").toFile();
+    }
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add("--server.port=" + port);
+        process = new ProcessBuilder(arguments).
+            redirectErrorStream(true).
+            redirectOutput(ProcessBuilder.Redirect.appendTo(log)).
+            start();
+        URL url = new URL("http://localhost:" + port + BOOKING_FORM);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) throw new IllegalStateException("Application exited, see " + log);
+            int status = get(url);
+            if (status == HttpURLConnection.HTTP_OK) return status;
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No response from " + url + " within " + TIMEOUT_MILLIS + " ms, see " + log);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopApplication() throws InterruptedException {
+        if (process == null) return;
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+        process = null;
+    }
+
+    private static int get(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(1000);
+            try {
+                int status = connection.getResponseCode();
+                // the form is streamed, it has been served once it has been read to the end
+                if (status == HttpURLConnection.HTTP_OK) drain(connection.getInputStream());
+                return status;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            // not listening yet
+            return -1;
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            byte[] buffer = new byte[8192];
+            while (body.read(buffer) >= 0) ;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Path executableJar() throws IOException {
+        try (Stream<Path> files = Files.list(TARGET)) {
+            return files.filter(file -> file.getFileName().toString().matches("study-scheduler-.*\\.jar")).
+                findFirst().
+                orElseThrow(() -> new IllegalStateException("No executable jar in " + TARGET + ", run ./mvnw package first"));
+        }
+    }
+
+    private static Path existing(Path file) {
+        if (!Files.exists(file)) throw new IllegalStateException("No " + file + ", run ./mvnw -P startup package first");
+        return file;
+    }
+}
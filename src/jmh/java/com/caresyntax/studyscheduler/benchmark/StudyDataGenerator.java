@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.benchmark;
+
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Study;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a reproducible synthetic schedule: the same seed and sizes always give the same rows.
+ * <p>
+ * Every room is booked with back to back studies of {@link #STUDY_MINUTES} minutes during
+ * the working day, so rooms never overlap, while patients and doctors are picked at random.
+ * Rows are written with JDBC batches, which keeps millions of studies within minutes.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyDataGenerator {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2019, 1, 1);
+    static final LocalTime DAY_START = LocalTime.of(8, 0);
+    static final int STUDY_MINUTES = 30;
+    static final int STUDIES_PER_ROOM_AND_DAY = 20;
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] FIRST_NAMES = {"George", "Betty", "Eduardo", "Harold", "Peter", "Jean", "Jeff",
+        "Maria", "David", "Carlos", "Helen", "James", "Linda", "Rafael", "Henry", "Sharon", "Anna", "Paul"};
+    private static final String[] LAST_NAMES = {"Franklin", "Davis", "Rodriquez", "Black", "McTavish", "Coleman",
+        "Black", "Escobito", "Schroeder", "Estaban", "Carter", "Leary", "Douglas", "Ortega", "Stevens", "Jenkins"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    public StudyDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Inserts the reference data and the studies next to the rows already in the tables. Rows already in the tables are used as well.
+     *
+     * @param studies  number of studies
+     * @param patients number of patients
+     * @param doctors  number of doctors
+     * @param rooms    number of rooms
+     * @return the generated ids
+     */
+    public Ids generate(int studies, int patients, int doctors, int rooms) {
+        Ids ids = new Ids();
+        ids.doctors = insertNamed("doctor", "Doctor", doctors);
+        ids.rooms = insertNamed("room", "Room", rooms);
+        ids.patients = insertPatients(patients);
+        insertStudies(studies, ids);
+        return ids;
+    }
+
+    /**
+     * @return number of days covered by the given number of studies in the given number of rooms
+     */
+    static int days(int studies, int rooms) {
+        return Math.max(1, (studies + rooms * STUDIES_PER_ROOM_AND_DAY - 1) / (rooms * STUDIES_PER_ROOM_AND_DAY));
+    }
+
+    private List<Integer> insertNamed(String table, String prefix, int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[]{prefix + " " + i});
+        }
+        jdbcTemplate.batchUpdate("insert into " + table + " (name) values (?)", rows);
+        return jdbcTemplate.queryForList("select id from " + table + " order by id", Integer.class);
+    }
+
+    private List<Integer> insertPatients(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " +
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + i;
+            Patient.SEX sex = random.nextBoolean() ? Patient.SEX.male : Patient.SEX.female;
+            LocalDate birthDate = LocalDate.of(1930, 1, 1).plusDays(random.nextInt(90 * 365));
+            rows.add(new Object[]{name, sex.ordinal(), Date.valueOf(birthDate)});
+            if (rows.size() == BATCH_SIZE) flush("insert into patient (name, sex, birth_date) values (?, ?, ?)", rows);
+        }
+        flush("insert into patient (name, sex, birth_date) values (?, ?, ?)", rows);
+        return jdbcTemplate.queryForList("select id from patient order by id", Integer.class);
+    }
+
+    private void insertStudies(int count, Ids ids) {
+        String sql = "insert into study (patient_id, description, status, start_time, end_time, doctor_id, room_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+        int rooms = ids.rooms.size();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int room = i % rooms;
+            int slot = (i / rooms) % STUDIES_PER_ROOM_AND_DAY;
+            int day = i / (rooms * STUDIES_PER_ROOM_AND_DAY);
+            LocalDateTime start = FIRST_DAY.plusDays(day).atTime(DAY_START).plusMinutes(slot * STUDY_MINUTES);
+            // most studies are planned, some are already finished
+            Study.STATUS status = random.nextInt(10) == 0 ? Study.STATUS.finished : Study.STATUS.planned;
+            rows.add(new Object[]{ids.patients.get(random.nextInt(ids.patients.size())), "Study " + i,
+                status.ordinal(), Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(STUDY_MINUTES)),
+                ids.doctors.get(random.nextInt(ids.doctors.size())), ids.rooms.get(room)});
+            if (rows.size() == BATCH_SIZE) flush(sql, rows);
+        }
+        flush(sql, rows);
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(sql, rows);
+        rows.clear();
+    }
+
+    /**
+     * Ids of the generated rows.
+     */
+    public static class Ids {
+        List<Integer> patients;
+        List<Integer> doctors;
+        List<Integer> rooms;
+    }
+}
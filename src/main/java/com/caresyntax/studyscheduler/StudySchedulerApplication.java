@@ -17,6 +17,7 @@ package com.caresyntax.studyscheduler;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * Study Scheduler Spring Boot Application.
@@ -27,7 +28,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class StudySchedulerApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(StudySchedulerApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(StudySchedulerApplication.class, args);
+        // a training run of the class data sharing archive stops once started
+        if (context.getEnvironment().getProperty("studyscheduler.startup.exit", Boolean.class, false))
+            System.exit(SpringApplication.exit(context));
     }
 
 }
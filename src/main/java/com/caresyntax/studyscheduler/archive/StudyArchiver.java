@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.archive;
+
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves finished studies older than <code>studyscheduler.archive.age</code> to the archive table, so the study
+ * table holds the current schedule and its recent history only.
+ * <p>
+ * Studies are moved in batches of <code>studyscheduler.archive.batch-size</code>, each in its own short transaction,
+ * until none is due. Not lazy, since a lazy bean would never be scheduled.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+@Lazy(false)
+public class StudyArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudyArchiver.class);
+
+    private final StudyRepository studyRepository;
+    private final Duration age;
+    private final int batchSize;
+
+    public StudyArchiver(StudyRepository studyRepository,
+                         @Value("${studyscheduler.archive.age}") Duration age,
+                         @Value("${studyscheduler.archive.batch-size}") int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Archive batch size must be positive: " + batchSize);
+        this.studyRepository = studyRepository;
+        this.age = age;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${studyscheduler.archive.interval}",
+        fixedDelayString = "${studyscheduler.archive.interval}")
+    public void archiveFinished() {
+        archiveFinished(LocalDateTime.now().minus(age));
+    }
+
+    /**
+     * @param startedBefore finished studies starting before this time are moved
+     * @return number of moved studies
+     */
+    public int archiveFinished(LocalDateTime startedBefore) {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        int archived = 0;
+        int moved;
+        do {
+            moved = studyRepository.archiveFinished(startedBefore, batchSize);
+            archived += moved;
+        } while (moved == batchSize);
+        sample.stop(Metrics.timer(SchedulingMetrics.ARCHIVE_RUN));
+        Metrics.counter(SchedulingMetrics.ARCHIVED_STUDIES).increment(archived);
+        if (archived > 0) logger.info("Archived {} finished studies started before {}", archived, startedBefore);
+        return archived;
+    }
+}
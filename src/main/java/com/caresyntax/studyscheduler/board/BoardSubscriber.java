@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.board;
+
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection of one board with its own bounded buffer of changed studies.
+ * <p>
+ * A board that does not keep up loses its buffered changes and is sent a reset event instead,
+ * after which it reloads the whole schedule. So a slow board neither blocks the saving thread
+ * nor holds more than the buffer size of changes.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+class BoardSubscriber {
+
+    static final String STUDY_EVENT = "study";
+    static final String RESET_EVENT = "reset";
+
+    private final SseEmitter emitter;
+    private final Integer doctorId;
+    private final Integer roomId;
+    private final BlockingQueue<StudyRow> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean overflowed;
+
+    BoardSubscriber(SseEmitter emitter, Integer doctorId, Integer roomId, int bufferSize) {
+        this.emitter = emitter;
+        this.doctorId = doctorId;
+        this.roomId = roomId;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * @param doctorId doctor of the study or null
+     * @param roomId   room of the study or null
+     * @return true - if the board shows studies of the doctor and room
+     */
+    boolean accepts(Integer doctorId, Integer roomId) {
+        return (this.doctorId == null || Objects.equals(this.doctorId, doctorId)) &&
+            (this.roomId == null || Objects.equals(this.roomId, roomId));
+    }
+
+    /**
+     * Buffers the study, or drops the buffer if it is full.
+     *
+     * @param study changed study
+     * @return false if the buffer has been dropped
+     */
+    boolean offer(StudyRow study) {
+        if (buffer.offer(study)) return true;
+        overflowed = true;
+        buffer.clear();
+        return false;
+    }
+
+    /**
+     * @return true - if the caller has to drain the buffer, false if another thread is already draining it
+     */
+    boolean startDraining() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Sends the buffered changes until the buffer is empty.
+     *
+     * @return true - if changes arrived after the buffer was drained and it has to be drained again
+     * @throws IOException if the board has disconnected
+     */
+    boolean drain() throws IOException {
+        try {
+            StudyRow study;
+            while (true) {
+                if (overflowed) {
+                    overflowed = false;
+                    buffer.clear();
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data(""));
+                }
+                if ((study = buffer.poll()) == null) break;
+                emitter.send(SseEmitter.event().name(STUDY_EVENT).id(String.valueOf(study.getId())).
+                    data(study, MediaType.APPLICATION_JSON));
+            }
+        } finally {
+            draining.set(false);
+        }
+        return !buffer.isEmpty() || overflowed;
+    }
+}
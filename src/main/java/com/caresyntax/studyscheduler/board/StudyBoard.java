@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.board;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyChangedEvent;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.NamedEntity;
+import com.caresyntax.studyscheduler.search.PatientNameIndex;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes committed study changes to the connected schedule boards as server-sent events.
+ * <p>
+ * The saving thread only hands the change over. A small pool of sender threads resolves the names
+ * once per change from the reference data cache and the patient name index, so that no query is run,
+ * and fans the study out into the buffers of the boards showing its doctor or room, before or after
+ * the change. Every board is drained by at most one sender at a time.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class StudyBoard {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudyBoard.class);
+
+    private final Set<BoardSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final PatientNameIndex patientNameIndex;
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final ExecutorService sender;
+    private final Counter dropped;
+
+    public StudyBoard(PatientNameIndex patientNameIndex, DoctorRepository doctorRepository, RoomRepository roomRepository,
+                      @Value("${studyscheduler.board.max-subscribers}") int maxSubscribers,
+                      @Value("${studyscheduler.board.buffer-size}") int bufferSize,
+                      @Value("${studyscheduler.board.timeout}") Duration timeout,
+                      @Value("${studyscheduler.board.sender-threads}") int senderThreads) {
+        this.patientNameIndex = patientNameIndex;
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sender = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("study-board-"));
+        this.dropped = Metrics.counter(SchedulingMetrics.BOARD_DROPPED);
+        Metrics.gauge(SchedulingMetrics.BOARD_SUBSCRIBERS, subscribers, Set::size);
+    }
+
+    /**
+     * @param doctorId doctor whose studies are shown or null for all
+     * @param roomId   room whose studies are shown or null for all
+     * @return emitter of the changes or empty if the maximum number of boards is connected
+     */
+    public Optional<SseEmitter> subscribe(Integer doctorId, Integer roomId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        return subscribe(emitter, doctorId, roomId) ? Optional.of(emitter) : Optional.empty();
+    }
+
+    boolean subscribe(SseEmitter emitter, Integer doctorId, Integer roomId) {
+        if (subscribers.size() >= maxSubscribers) return false;
+        BoardSubscriber subscriber = new BoardSubscriber(emitter, doctorId, roomId, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return true;
+    }
+
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void studyChanged(StudyChangedEvent event) {
+        if (!subscribers.isEmpty()) sender.execute(() -> publish(event));
+    }
+
+    private void publish(StudyChangedEvent event) {
+        StudyRow study = null;
+        for (BoardSubscriber subscriber : subscribers) {
+            if (!subscriber.accepts(event.getDoctorId(), event.getRoomId()) &&
+                !subscriber.accepts(event.getPreviousDoctorId(), event.getPreviousRoomId())) continue;
+            if (study == null) study = rowOf(event);
+            if (!subscriber.offer(study)) dropped.increment();
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(BoardSubscriber subscriber) {
+        if (subscriber.startDraining()) sender.execute(() -> drain(subscriber));
+    }
+
+    private void drain(BoardSubscriber subscriber) {
+        try {
+            if (subscriber.drain()) schedule(subscriber);
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Board disconnected: {}", e.toString());
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private StudyRow rowOf(StudyChangedEvent event) {
+        PatientSummary patient = event.getPatientId() == null ? null : patientNameIndex.get(event.getPatientId());
+        String doctorName = event.getDoctorId() == null ? null :
+            doctorRepository.findById(event.getDoctorId()).map(NamedEntity::getName).orElse(null);
+        String roomName = event.getRoomId() == null ? null :
+            roomRepository.findById(event.getRoomId()).map(NamedEntity::getName).orElse(null);
+        return new StudyRow(event.getStudyId(), event.getPatientId(), patient == null ? null : patient.getName(),
+            event.getDoctorId(), doctorName, event.getRoomId(), roomName, event.getDescription(), event.getStatus(),
+            event.getStartTime(), event.getEndTime());
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.getEmitter().complete());
+        subscribers.clear();
+    }
+}
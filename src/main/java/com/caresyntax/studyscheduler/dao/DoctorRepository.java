@@ -16,17 +16,66 @@
 package com.caresyntax.studyscheduler.dao;
 
 import com.caresyntax.studyscheduler.model.Doctor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
+import static com.caresyntax.studyscheduler.system.CacheConfiguration.DOCTORS;
+
 /**
  * Repository class for <code>Doctor</code> domain objects
  * <p>
  * All method names are compliant with Spring Data naming
  * conventions so this interface can easily be extended for Spring Data.
  * See: https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#repositories.query-methods.query-creation
+ * <p>
+ * Doctors are reference data read by every study form, so the list of all doctors is cached
+ * and every change evicts it.
  *
  * @author Mike Adamenko (mnadamenko@gmail.com)
  */
 public interface DoctorRepository extends JpaRepository<Doctor, Integer> {
 
+    @Override
+    @Cacheable(DOCTORS)
+    List<Doctor> findAll();
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    <S extends Doctor> S save(S doctor);
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    <S extends Doctor> List<S> saveAll(Iterable<S> doctors);
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    <S extends Doctor> S saveAndFlush(S doctor);
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    void deleteById(Integer id);
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    void delete(Doctor doctor);
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    void deleteAll(Iterable<? extends Doctor> doctors);
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    void deleteInBatch(Iterable<Doctor> doctors);
+
+    @Override
+    @CacheEvict(cacheNames = DOCTORS, allEntries = true)
+    void deleteAllInBatch();
+
 }
@@ -16,12 +16,19 @@
 package com.caresyntax.studyscheduler.dao;
 
 import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository class for <code>Patient</code> domain objects
@@ -32,18 +39,41 @@ import java.util.Collection;
  *
  * @author Mike Adamenko (mnadamenko@gmail.com)
  */
-public interface PatientRepository extends JpaRepository<Patient, Integer> {
+public interface PatientRepository extends JpaRepository<Patient, Integer>, PatientRepositoryCustom {
 
     /**
-     * Retrieve {@link Patient}s from the data store by name, returning all patients
-     * whose name <i>contains</i> the given substring.
+     * Retrieve a {@link Patient} together with the studies, their doctors and rooms in one query.
      *
-     * @param name Value to search for
-     * @return a Collection of matching {@link Patient}s (or an empty Collection if none
-     * found)
+     * @param id patient id
+     * @return the {@link Patient} if found
      */
-    @Query("SELECT patient FROM Patient patient WHERE lower(patient.name) LIKE lower('%' || :name || '%')")
+    @EntityGraph(attributePaths = {"studies", "studies.doctor", "studies.room"})
     @Transactional(readOnly = true)
-    Collection<Patient> findByName(@Param("name") String name);
+    Optional<Patient> findWithStudiesById(Integer id);
+
+    /**
+     * Reads summaries of all patients ordered by id from a forward-only cursor.
+     * The stream must be consumed and closed within the caller's transaction.
+     *
+     * @return patient summaries
+     */
+    @Query("select new com.caresyntax.studyscheduler.search.PatientSummary(p.id, p.name, p.sex, p.birthDate) " +
+        "from Patient p order by p.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<PatientSummary> streamSummaries();
+
+    /**
+     * @param ids patient ids
+     * @return the ids of stored patients
+     */
+    @Query("select p.id from Patient p where p.id in :ids")
+    @Transactional(readOnly = true)
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Implemented by {@link PatientRepositoryImpl#save(Patient)}.
+     */
+    @Override
+    <S extends Patient> S save(S patient);
 
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom PatientRepository interface
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public interface PatientRepositoryCustom {
+
+    /**
+     * Retrieve a page of {@link Patient}s from the data store by name, returning patients
+     * whose name <i>contains</i> the given substring. The page knows the total number of matches,
+     * which the name index counts without touching the patient table.
+     *
+     * @param name     Value to search for
+     * @param pageable page to return, unsorted pages are ordered by relevance, best match first;
+     *                 sorting is supported by <code>name</code>, <code>sex</code> and <code>birthDate</code>
+     * @return a page of matching {@link Patient}s (or an empty page if none found)
+     */
+    Page<Patient> findByName(String name, Pageable pageable);
+
+    /**
+     * Retrieve a page of {@link PatientSummary summaries} by name like {@link #findByName(String, Pageable)},
+     * answered from the name index without a database query.
+     *
+     * @param name     Value to search for, an empty value matches all patients
+     * @param pageable page to return
+     * @return a page of matching summaries
+     */
+    Page<PatientSummary> findSummariesByName(String name, Pageable pageable);
+
+    /**
+     * Retrieve the {@link PatientSummary summary} of a patient from the name index.
+     *
+     * @param id patient id
+     * @return the summary if the patient exists
+     */
+    Optional<PatientSummary> findSummaryById(Integer id);
+
+    /**
+     * Retrieve {@link PatientSummary summaries} of patients whose name is similar to the given value, tolerating typos.
+     *
+     * @param name  Value to search for
+     * @param limit maximum number of patients
+     * @return summaries of similar patients, most similar first
+     */
+    List<PatientSummary> findSimilarByName(String name, int limit);
+
+    /**
+     * Stores the patient and keeps the in-memory name index in sync with it.
+     *
+     * @param patient patient to store
+     * @return the stored patient
+     */
+    <S extends Patient> S save(S patient);
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.search.PatientNameIndex;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import com.caresyntax.studyscheduler.system.IndexSnapshot;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.util.Comparator.nullsLast;
+
+/**
+ * Custom PatientRepository implementation that answers name searches
+ * from the in-memory name index instead of scanning the patient table
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Repository
+@Transactional(readOnly = true)
+public class PatientRepositoryImpl implements PatientRepositoryCustom {
+
+    private final static int MAX_IDS_PER_QUERY = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PatientNameIndex nameIndex;
+    private final IndexSnapshot indexSnapshot;
+
+    public PatientRepositoryImpl(PatientNameIndex nameIndex, IndexSnapshot indexSnapshot) {
+        this.nameIndex = nameIndex;
+        this.indexSnapshot = indexSnapshot;
+    }
+
+    /**
+     * Loads summaries of all patients into the index, unless they have been restored from the snapshot.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadNameIndex() {
+        if (indexSnapshot.restore()) return;
+        nameIndex.reload(entityManager.createQuery("select new com.caresyntax.studyscheduler.search.PatientSummary(" +
+            "p.id, p.name, p.sex, p.birthDate) from Patient p", PatientSummary.class).
+            getResultList());
+    }
+
+    @Override
+    public Page<Patient> findByName(String name, Pageable pageable) {
+        return timed(() -> {
+            PatientNameIndex.Hits hits = search(name, pageable);
+            return new PageImpl<>(findAllInOrder(hits.getIds()), pageable, hits.getTotal());
+        });
+    }
+
+    @Override
+    public Page<PatientSummary> findSummariesByName(String name, Pageable pageable) {
+        return timed(() -> {
+            PatientNameIndex.Hits hits = search(name, pageable);
+            return new PageImpl<>(summaries(hits.getIds()), pageable, hits.getTotal());
+        });
+    }
+
+    @Override
+    public Optional<PatientSummary> findSummaryById(Integer id) {
+        return Optional.ofNullable(nameIndex.get(id));
+    }
+
+    @Override
+    public List<PatientSummary> findSimilarByName(String name, int limit) {
+        return summaries(nameIndex.searchSimilar(name, limit));
+    }
+
+    @Override
+    @Transactional
+    public <S extends Patient> S save(S patient) {
+        S saved;
+        if (patient.isNew()) {
+            entityManager.persist(patient);
+            saved = patient;
+        } else {
+            saved = entityManager.merge(patient);
+        }
+        index(saved);
+        return saved;
+    }
+
+    /**
+     * Updates the index right away so that the patient can be found in the same transaction,
+     * and restores the previous name if the transaction does not commit.
+     */
+    private void index(Patient patient) {
+        PatientSummary previous = nameIndex.get(patient.getId());
+        nameIndex.put(PatientSummary.of(patient));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == TransactionSynchronization.STATUS_COMMITTED) return;
+                    if (previous != null) nameIndex.put(previous);
+                    else nameIndex.remove(patient.getId());
+                }
+            });
+        }
+    }
+
+    private static <T> Page<T> timed(Supplier<Page<T>> search) {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        Page<T> page = search.get();
+        sample.stop(Metrics.timer(SchedulingMetrics.PATIENT_SEARCH,
+            "outcome", page.getTotalElements() > 0 ? "found" : "empty"));
+        return page;
+    }
+
+    private PatientNameIndex.Hits search(String name, Pageable pageable) {
+        return nameIndex.search(name, comparator(pageable.getSort()),
+            pageable.isPaged() ? pageable.getOffset() : 0,
+            pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Translates the requested sort to the order of index entries, null keeps the relevance order.
+     */
+    private static Comparator<PatientSummary> comparator(Sort sort) {
+        Comparator<PatientSummary> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<PatientSummary> next;
+            switch (order.getProperty()) {
+                case "name":
+                    next = Comparator.comparing(PatientSummary::getName, nullsLast(String.CASE_INSENSITIVE_ORDER));
+                    break;
+                case "sex":
+                    next = Comparator.comparing(PatientSummary::getSex, nullsLast(Comparator.<Patient.SEX>naturalOrder()));
+                    break;
+                case "birthDate":
+                    next = Comparator.comparing(PatientSummary::getBirthDate, nullsLast(Comparator.<LocalDate>naturalOrder()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Patients can not be sorted by " + order.getProperty());
+            }
+            if (order.isDescending()) next = next.reversed();
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+
+    private List<PatientSummary> summaries(List<Integer> ids) {
+        return ids.stream().
+            map(nameIndex::get).
+            filter(Objects::nonNull).
+            collect(Collectors.toList());
+    }
+
+    private List<Patient> findAllInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) return Collections.emptyList();
+        Map<Integer, Patient> patients = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            entityManager.createQuery("select p from Patient p where p.id in :ids", Patient.class).
+                setParameter("ids", chunk).
+                getResultList().
+                forEach(patient -> patients.put(patient.getId(), patient));
+        }
+        return ids.stream().
+            map(patients::get).
+            filter(Objects::nonNull).
+            collect(Collectors.toCollection(ArrayList::new));
+    }
+}
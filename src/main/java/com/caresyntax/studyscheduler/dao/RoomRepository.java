@@ -16,17 +16,66 @@
 package com.caresyntax.studyscheduler.dao;
 
 import com.caresyntax.studyscheduler.model.Room;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
+import static com.caresyntax.studyscheduler.system.CacheConfiguration.ROOMS;
+
 /**
  * Repository class for <code>Room</code> domain objects
  * <p>
  * All method names are compliant with Spring Data naming
  * conventions so this interface can easily be extended for Spring Data.
  * See: https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#repositories.query-methods.query-creation
+ * <p>
+ * Rooms are reference data read by every study form, so the list of all rooms is cached
+ * and every change evicts it.
  *
  * @author Mike Adamenko (mnadamenko@gmail.com)
  */
 public interface RoomRepository extends JpaRepository<Room, Integer> {
 
+    @Override
+    @Cacheable(ROOMS)
+    List<Room> findAll();
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    <S extends Room> S save(S room);
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    <S extends Room> List<S> saveAll(Iterable<S> rooms);
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    <S extends Room> S saveAndFlush(S room);
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    void deleteById(Integer id);
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    void delete(Room room);
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    void deleteAll(Iterable<? extends Room> rooms);
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    void deleteInBatch(Iterable<Room> rooms);
+
+    @Override
+    @CacheEvict(cacheNames = ROOMS, allEntries = true)
+    void deleteAllInBatch();
+
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a stored study has been committed. Carries only ids, so that it can be created
+ * for studies referencing not yet loaded patients, doctors or rooms.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyChangedEvent {
+
+    private final Integer studyId;
+    private final Integer patientId;
+    private final Integer doctorId;
+    private final Integer roomId;
+    private final String description;
+    private final Study.STATUS status;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Integer previousDoctorId;
+    private final Integer previousRoomId;
+
+    /**
+     * @param study    stored study
+     * @param previous interval of the study before the change or null
+     */
+    public StudyChangedEvent(Study study, StudyInterval previous) {
+        this.studyId = study.getId();
+        this.patientId = idOf(study.getPatient());
+        this.doctorId = idOf(study.getDoctor());
+        this.roomId = idOf(study.getRoom());
+        this.description = study.getDescription();
+        this.status = study.getStatus();
+        this.startTime = study.getStartTime();
+        this.endTime = study.getEndTime();
+        this.previousDoctorId = previous == null ? null : previous.getDoctorId();
+        this.previousRoomId = previous == null ? null : previous.getRoomId();
+    }
+
+    public Integer getStudyId() {
+        return studyId;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Study.STATUS getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return doctor of the active study before the change, null if it was new or not active
+     */
+    public Integer getPreviousDoctorId() {
+        return previousDoctorId;
+    }
+
+    /**
+     * @return room of the active study before the change, null if it was new or not active
+     */
+    public Integer getPreviousRoomId() {
+        return previousRoomId;
+    }
+
+    private static Integer idOf(BaseEntity entity) {
+        return entity == null ? null : entity.getId();
+    }
+
+    @Override
+    public String toString() {
+        return "StudyChangedEvent{" +
+            "studyId=" + studyId +
+            ", doctorId=" + doctorId +
+            ", roomId=" + roomId +
+            ", status=" + status +
+            ", startTime=" + startTime +
+            '}';
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import com.caresyntax.studyscheduler.model.Study;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria of study list queries. Unset properties do not restrict the result.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyFilter {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private Integer patientId;
+
+    private Integer doctorId;
+
+    private Integer roomId;
+
+    private Study.STATUS status;
+
+    /**
+     * @return first day of the study start time, inclusive
+     */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    /**
+     * @return last day of the study start time, inclusive
+     */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Integer doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Integer patientId) {
+        this.patientId = patientId;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Integer roomId) {
+        this.roomId = roomId;
+    }
+
+    public Study.STATUS getStatus() {
+        return status;
+    }
+
+    public void setStatus(Study.STATUS status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "StudyFilter{" +
+            "from=" + from +
+            ", to=" + to +
+            ", patientId=" + patientId +
+            ", doctorId=" + doctorId +
+            ", roomId=" + roomId +
+            ", status=" + status +
+            '}';
+    }
+}
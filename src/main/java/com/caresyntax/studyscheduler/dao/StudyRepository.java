@@ -17,7 +17,11 @@ package com.caresyntax.studyscheduler.dao;
 
 import com.caresyntax.studyscheduler.model.Study;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 /**
@@ -31,6 +35,23 @@ import java.util.List;
  */
 public interface StudyRepository extends JpaRepository<Study, Integer>, StudyRepositoryCustom {
 
-    List<Study> findByPatientId(Integer patientId);
+    /**
+     * Retrieve the studies of a patient with their doctors and rooms. The condition on the foreign key
+     * uses the patient index without joining the patient table. The result is kept in the query cache
+     * until the study table changes.
+     *
+     * @param patientId patient id
+     * @return studies of the patient ordered by start time
+     */
+    @Query("select s from Study s join fetch s.doctor join fetch s.room where s.patient.id = :patientId " +
+        "order by s.startTime, s.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Study> findByPatientId(@Param("patientId") Integer patientId);
+
+    /**
+     * Implemented by {@link StudyRepositoryImpl#save(Study)}.
+     */
+    @Override
+    <S extends Study> S save(S study);
 
 }
@@ -15,8 +15,16 @@
  */
 package com.caresyntax.studyscheduler.dao;
 
+import com.caresyntax.studyscheduler.model.ArchivedStudy;
+import com.caresyntax.studyscheduler.model.Room;
 import com.caresyntax.studyscheduler.model.Study;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Custom StudyRepository interface
  *
@@ -25,4 +33,99 @@ import com.caresyntax.studyscheduler.model.Study;
 public interface StudyRepositoryCustom {
 
     boolean isExistIntersectingStudies(Study study);
+
+    /**
+     * Checks the study against the studies stored by all instances, not only against the index of this one.
+     * Must be called in the transaction that has locked the resources of the study with {@link #lockResources}.
+     *
+     * @param study study about to be stored
+     * @return true - if exists intersections
+     */
+    boolean isExistStoredIntersectingStudies(Study study);
+
+    /**
+     * Filters rooms that are not occupied by any study in the given time.
+     *
+     * @param rooms     candidate rooms
+     * @param startTime start time
+     * @param endTime   end time or null for the default study duration
+     * @param studyId   id of the edited study that must not occupy its own room, or null
+     * @return free rooms in the order of the candidates
+     */
+    List<Room> findFreeRooms(Collection<Room> rooms, LocalDateTime startTime, LocalDateTime endTime, Integer studyId);
+
+    /**
+     * Reads the archived studies of a patient, without a query while the archive is empty.
+     *
+     * @param patientId patient id
+     * @return archived studies of the patient with their doctors and rooms ordered by start time
+     */
+    List<ArchivedStudy> findArchivedStudies(Integer patientId);
+
+    /**
+     * @param id study id
+     * @return the study if it has been moved to the archive
+     */
+    Optional<ArchivedStudy> findArchivedStudy(Integer id);
+
+    /**
+     * Reads a page of studies ordered by start time and id. The next page starts after
+     * the last study of the previous one, so the cost of a page does not grow with its position.
+     * Archived studies are included, the archive is only queried if it may hold matching studies.
+     *
+     * @param filter         criteria
+     * @param afterStartTime start time of the last study of the previous page or null for the first page
+     * @param afterId        id of the last study of the previous page or null for the first page
+     * @param limit          maximum number of studies
+     * @return rows of the studies
+     */
+    List<StudyRow> findStudies(StudyFilter filter, LocalDateTime afterStartTime, Integer afterId, int limit);
+
+    /**
+     * Reads studies ordered by start time and id from a forward-only cursor.
+     * Rows are not managed entities, so memory use does not depend on the number of studies.
+     * Archived studies are included like in {@link #findStudies}.
+     * The stream must be consumed while the current persistence context is open.
+     *
+     * @param filter criteria
+     * @return rows of the studies
+     */
+    Stream<StudyRow> streamStudies(StudyFilter filter);
+
+    /**
+     * Stores the study unless it intersects another study. The check and the insert are atomic,
+     * because the rows of the patient, doctor and room are locked until the transaction ends.
+     * Bookings of the same resources are serialized, bookings of other resources are not.
+     * Runs in a transaction of its own and must not be called within a transaction.
+     *
+     * @param study study to store
+     * @return false if the study intersects another study and has not been stored
+     */
+    boolean saveIfFree(Study study);
+
+    /**
+     * Locks the rows of the patients, doctors and rooms of the studies until the current transaction ends.
+     * Rows are locked by type and then by id, so that concurrent transactions can not deadlock.
+     *
+     * @param studies studies about to be checked and stored
+     */
+    void lockResources(Collection<? extends Study> studies);
+
+    /**
+     * Moves the oldest finished studies that started before the given time to the archive, in one transaction.
+     * Only the moved rows are locked, so bookings and edits of other studies go on meanwhile.
+     *
+     * @param startedBefore studies starting from this time stay
+     * @param limit         maximum number of studies to move
+     * @return number of moved studies, less than the limit when no more are due
+     */
+    int archiveFinished(LocalDateTime startedBefore, int limit);
+
+    /**
+     * Stores the study and keeps the in-memory interval index in sync with it.
+     *
+     * @param study study to store
+     * @return the stored study
+     */
+    <S extends Study> S save(S study);
 }
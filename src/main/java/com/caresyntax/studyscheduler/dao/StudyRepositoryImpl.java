@@ -15,15 +15,58 @@
  */
 package com.caresyntax.studyscheduler.dao;
 
+import com.caresyntax.studyscheduler.model.AbstractStudy;
+import com.caresyntax.studyscheduler.model.ArchivedStudy;
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Room;
 import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.ReservationLockManager;
+import com.caresyntax.studyscheduler.schedule.RoomOccupancy;
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import com.caresyntax.studyscheduler.system.IndexSnapshot;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
-import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Custom StudyRepository implementation for methods that requires
@@ -36,28 +79,454 @@ import java.util.List;
 public class StudyRepositoryImpl implements StudyRepositoryCustom {
 
     private final static List<Study.STATUS> statuses = Arrays.asList(Study.STATUS.planned, Study.STATUS.inprogress);
+    /**
+     * Condition on the active studies intersecting the candidate interval like {@link StudyInterval#intersects}.
+     * A study without an end time after its start, also a legacy row ending before it starts, lasts the default
+     * duration, and a study of the same start always intersects. The start time range stays a plain bound,
+     * so that it limits the index scan.
+     */
+    private final static String INTERSECTING = "and s.status in :statuses " +
+        "and s.startTime > :earliestStart and s.startTime <= :end " +
+        "and (s.startTime = :start or (s.startTime < :end and (s.endTime > :start " +
+        "or ((s.endTime is null or s.endTime <= s.startTime) and s.startTime > :openStart))))";
+    private final static int STREAM_FETCH_SIZE = 500;
+    private final static int MAX_IDS_PER_QUERY = 1000;
+    private final static Comparator<StudyRow> BY_START_TIME = Comparator.comparing(StudyRow::getStartTime).
+        thenComparing(StudyRow::getId);
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final StudyIntervalIndex intervalIndex;
+    private final RoomOccupancy roomOccupancy;
+    private final ReservationLockManager reservationLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IndexSnapshot indexSnapshot;
+    private final boolean intervalIndexEnabled;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    /**
+     * Start time of the latest archived study, null while the archive is empty. Queries for later
+     * studies skip the archive. Only raised, by the archiver of this instance.
+     */
+    private volatile LocalDateTime archivedUntil;
+
+    public StudyRepositoryImpl(StudyIntervalIndex intervalIndex, RoomOccupancy roomOccupancy,
+                               ReservationLockManager reservationLocks, PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher, IndexSnapshot indexSnapshot,
+                               @Value("${studyscheduler.study.interval-index}") boolean intervalIndexEnabled,
+                               @Value("${studyscheduler.study.default-duration}") Duration defaultDuration,
+                               @Value("${studyscheduler.study.max-duration}") Duration maxDuration) {
+        this.intervalIndex = intervalIndex;
+        this.roomOccupancy = roomOccupancy;
+        this.reservationLocks = reservationLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.indexSnapshot = indexSnapshot;
+        this.intervalIndexEnabled = intervalIndexEnabled;
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Loads intervals of all active studies into the index, unless they have been restored from the snapshot.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadIntervalIndex() {
+        if (indexSnapshot.restore()) return;
+        List<StudyInterval> intervals = entityManager.createQuery("select new " + StudyInterval.class.getName() +
+            "(s.id, s.patient.id, s.doctor.id, s.room.id, s.startTime, s.endTime) " +
+            "from Study s where s.status in :statuses", StudyInterval.class).
+            setParameter("statuses", statuses).
+            getResultList();
+        intervalIndex.reload(intervals.stream().
+            map(interval -> interval.withDefaultDuration(defaultDuration)).
+            collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads how far the archive reaches.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadArchivedUntil() {
+        archivedUntil = entityManager.createQuery("select max(s.startTime) from ArchivedStudy s", LocalDateTime.class).
+            getSingleResult();
+    }
+
     /**
-     * Searches intersections to not allow to store studies in the same time.
-     * Compares only by start time as end time is optional
+     * Searches intersections to not allow to store studies in the same time
+     * for the same patient, doctor or room.
+     * A study without end time lasts the configured default duration.
      *
      * @param study study
      * @return true - if exists intersections
      */
     @Override
     public boolean isExistIntersectingStudies(Study study) {
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        boolean intersecting = isIntersecting(study);
+        sample.stop(Metrics.timer(SchedulingMetrics.CONFLICT_CHECK,
+            "check", intervalIndexEnabled ? "index" : "database",
+            "outcome", intersecting ? "conflict" : "free"));
+        return intersecting;
+    }
+
+    /**
+     * Confirms a check of the index in the database, because the index of this instance does not know
+     * the studies stored by other instances. Only called while the resources are locked, so that a study
+     * found free here can not be booked elsewhere before the transaction ends.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean isExistStoredIntersectingStudies(Study study) {
+        if (isExistIntersectingStudies(study)) return true;
+        if (!intervalIndexEnabled) return false;
+
+        Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        boolean intersecting = isExistIntersectingStudies(study, intervalOf(study));
+        sample.stop(Metrics.timer(SchedulingMetrics.CONFLICT_CHECK,
+            "check", "database",
+            "outcome", intersecting ? "conflict" : "free"));
+        return intersecting;
+    }
+
+    private boolean isIntersecting(Study study) {
+        StudyInterval candidate = intervalOf(study);
+        if (intervalIndexEnabled) return intervalIndex.isIntersecting(candidate);
+
+        return isExistIntersectingStudies("patient", study.getPatient(), candidate)
+            || isExistIntersectingStudies("doctor", study.getDoctor(), candidate)
+            || isExistIntersectingStudies("room", study.getRoom(), candidate);
+    }
+
+    /**
+     * Checks the patient, doctor and room in the database with one statement. The start time bounds
+     * keep the scan of the start time index to the studies that may overlap the candidate.
+     */
+    private boolean isExistIntersectingStudies(Study study, StudyInterval candidate) {
+        List<String> resources = new ArrayList<>(3);
+        if (study.getPatient() != null) resources.add("s.patient = :patient");
+        if (study.getDoctor() != null) resources.add("s.doctor = :doctor");
+        if (study.getRoom() != null) resources.add("s.room = :room");
+        if (resources.isEmpty()) return false;
         String sfx = "";
-        if (!study.isNew()) sfx = " and s.id <> :id";
+        if (candidate.getStudyId() != null) sfx = " and s.id <> :id";
 
-        Query query = entityManager.createQuery("select s from Study s where s.startTime = :startTime " +
-            "and s.status in :statuses and (s.patient = :patient or s.doctor = :doctor)" + sfx).
-            setParameter("startTime", study.getStartTime()).
+        TypedQuery<Integer> query = entityManager.createQuery("select s.id from Study s where (" +
+            String.join(" or ", resources) + ") " +
+            INTERSECTING + sfx, Integer.class).
             setParameter("statuses", statuses).
-            setParameter("patient", study.getPatient()).
-            setParameter("doctor", study.getDoctor());
-        if (!study.isNew()) query.setParameter("id", study.getId());
+            setParameter("earliestStart", candidate.getStart().minus(maxDuration)).
+            setParameter("end", candidate.getEnd()).
+            setParameter("start", candidate.getStart()).
+            setParameter("openStart", candidate.getStart().minus(defaultDuration)).
+            setMaxResults(1);
+        if (study.getPatient() != null) query.setParameter("patient", study.getPatient());
+        if (study.getDoctor() != null) query.setParameter("doctor", study.getDoctor());
+        if (study.getRoom() != null) query.setParameter("room", study.getRoom());
+        if (candidate.getStudyId() != null) query.setParameter("id", candidate.getStudyId());
         return !query.getResultList().isEmpty();
     }
+
+    /**
+     * Checks a single resource in the database. The start time lower bound lets the query
+     * use the (resource, status, start_time) index instead of scanning the whole history,
+     * and only the first matching id is fetched.
+     */
+    private boolean isExistIntersectingStudies(String resource, Object value, StudyInterval candidate) {
+        if (value == null) return false;
+        String sfx = "";
+        if (candidate.getStudyId() != null) sfx = " and s.id <> :id";
+
+        TypedQuery<Integer> query = entityManager.createQuery("select s.id from Study s where s." + resource + " = :resource " +
+            INTERSECTING + sfx, Integer.class).
+            setParameter("resource", value).
+            setParameter("statuses", statuses).
+            setParameter("earliestStart", candidate.getStart().minus(maxDuration)).
+            setParameter("end", candidate.getEnd()).
+            setParameter("start", candidate.getStart()).
+            setParameter("openStart", candidate.getStart().minus(defaultDuration)).
+            setMaxResults(1);
+        if (candidate.getStudyId() != null) query.setParameter("id", candidate.getStudyId());
+        return !query.getResultList().isEmpty();
+    }
+
+    /**
+     * Looks rooms up in the occupancy bitmap. The room of the edited study is occupied by the study
+     * itself, so it is checked against the exact intervals of the room instead.
+     */
+    @Override
+    public List<Room> findFreeRooms(Collection<Room> rooms, LocalDateTime startTime, LocalDateTime endTime, Integer studyId) {
+        StudyInterval candidate = new StudyInterval(studyId, null, null, null, startTime, endTime).
+            withDefaultDuration(defaultDuration);
+        StudyInterval edited = intervalIndex.get(studyId);
+        return rooms.stream().
+            filter(room -> roomOccupancy.isFree(room.getId(), candidate.getStart(), candidate.getEnd()) ||
+                edited != null && room.getId().equals(edited.getRoomId()) &&
+                    !intervalIndex.isRoomIntersecting(room.getId(), candidate)).
+            collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ArchivedStudy> findArchivedStudies(Integer patientId) {
+        if (archivedUntil == null) return Collections.emptyList();
+        return entityManager.createQuery("select s from ArchivedStudy s join fetch s.doctor join fetch s.room " +
+            "where s.patient.id = :patientId order by s.startTime, s.id", ArchivedStudy.class).
+            setParameter("patientId", patientId).
+            getResultList();
+    }
+
+    @Override
+    public Optional<ArchivedStudy> findArchivedStudy(Integer id) {
+        if (archivedUntil == null) return Optional.empty();
+        return Optional.ofNullable(entityManager.find(ArchivedStudy.class, id));
+    }
+
+    /**
+     * Reads up to the limit from both tables and keeps the first rows of both in order.
+     */
+    @Override
+    public List<StudyRow> findStudies(StudyFilter filter, LocalDateTime afterStartTime, Integer afterId, int limit) {
+        List<StudyRow> studies = createStudiesQuery(Study.class, filter, afterStartTime, afterId).
+            setMaxResults(limit).
+            getResultList();
+        if (!isArchiveQueried(filter, afterStartTime)) return studies;
+
+        List<StudyRow> rows = new ArrayList<>(studies);
+        createStudiesQuery(ArchivedStudy.class, filter, afterStartTime, afterId).
+            setMaxResults(limit).
+            getResultList().
+            forEach(row -> rows.add(row.archived()));
+        rows.sort(BY_START_TIME);
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    /**
+     * Runs without an own transaction, because closing it would close the cursor.
+     * With the archive two cursors are open at once and merged while they are read.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Stream<StudyRow> streamStudies(StudyFilter filter) {
+        Stream<StudyRow> studies = createStudiesQuery(Study.class, filter, null, null).
+            setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE).
+            getResultStream();
+        if (!isArchiveQueried(filter, null)) return studies;
+
+        Stream<StudyRow> archived = createStudiesQuery(ArchivedStudy.class, filter, null, null).
+            setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE).
+            getResultStream().
+            map(StudyRow::archived);
+        Iterator<StudyRow> merged = new MergingIterator(studies.iterator(), archived.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false).
+            onClose(studies::close).
+            onClose(archived::close);
+    }
+
+    /**
+     * @return false - if no archived study can match, because of the status or because it would start too late
+     */
+    private boolean isArchiveQueried(StudyFilter filter, LocalDateTime afterStartTime) {
+        LocalDateTime until = archivedUntil;
+        if (until == null) return false;
+        if (filter.getStatus() != null && filter.getStatus() != Study.STATUS.finished) return false;
+        if (filter.getFrom() != null && filter.getFrom().atStartOfDay().isAfter(until)) return false;
+        return afterStartTime == null || !afterStartTime.isAfter(until);
+    }
+
+    /**
+     * Selects the listed columns of the study, its patient, doctor and room in a single join.
+     */
+    private TypedQuery<StudyRow> createStudiesQuery(Class<? extends AbstractStudy> type, StudyFilter filter,
+                                                    LocalDateTime afterStartTime, Integer afterId) {
+        StringBuilder jpql = new StringBuilder("select new " + StudyRow.class.getName() + "(s.id, p.id, p.name, " +
+            "d.id, d.name, r.id, r.name, s.description, s.status, s.startTime, s.endTime) " +
+            "from " + type.getSimpleName() + " s join s.patient p join s.doctor d join s.room r where 1 = 1");
+        if (filter.getFrom() != null) jpql.append(" and s.startTime >= :from");
+        if (filter.getTo() != null) jpql.append(" and s.startTime < :to");
+        if (filter.getPatientId() != null) jpql.append(" and s.patient.id = :patientId");
+        if (filter.getDoctorId() != null) jpql.append(" and s.doctor.id = :doctorId");
+        if (filter.getRoomId() != null) jpql.append(" and s.room.id = :roomId");
+        if (filter.getStatus() != null) jpql.append(" and s.status = :status");
+        boolean after = afterStartTime != null && afterId != null;
+        if (after) jpql.append(" and (s.startTime > :afterStartTime " +
+            "or (s.startTime = :afterStartTime and s.id > :afterId))");
+        jpql.append(" order by s.startTime, s.id");
+
+        TypedQuery<StudyRow> query = entityManager.createQuery(jpql.toString(), StudyRow.class);
+        if (filter.getFrom() != null) query.setParameter("from", filter.getFrom().atStartOfDay());
+        if (filter.getTo() != null) query.setParameter("to", filter.getTo().plusDays(1).atStartOfDay());
+        if (filter.getPatientId() != null) query.setParameter("patientId", filter.getPatientId());
+        if (filter.getDoctorId() != null) query.setParameter("doctorId", filter.getDoctorId());
+        if (filter.getRoomId() != null) query.setParameter("roomId", filter.getRoomId());
+        if (filter.getStatus() != null) query.setParameter("status", filter.getStatus());
+        if (after) {
+            query.setParameter("afterStartTime", afterStartTime);
+            query.setParameter("afterId", afterId);
+        }
+        return query;
+    }
+
+    /**
+     * Holds the in-process reservation from before the transaction begins until it has completed,
+     * so that bookings of the same resources in this instance wait here instead of on the row locks.
+     * Never joins a transaction of the caller, which would commit only after the reservation is released.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NEVER)
+    public boolean saveIfFree(Study study) {
+        try (ReservationLockManager.Reservation ignored = reservationLocks.reserve(study)) {
+            return transactionTemplate.execute(status -> {
+                lockResources(Collections.singletonList(study));
+                if (isExistStoredIntersectingStudies(study)) return false;
+                save(study);
+                return true;
+            });
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockResources(Collection<? extends Study> studies) {
+        lock(Patient.class, studies, Study::getPatient);
+        lock(Doctor.class, studies, Study::getDoctor);
+        lock(Room.class, studies, Study::getRoom);
+    }
+
+    private void lock(Class<? extends BaseEntity> type, Collection<? extends Study> studies,
+                      Function<Study, BaseEntity> resource) {
+        List<Integer> ids = studies.stream().
+            map(resource).
+            filter(Objects::nonNull).
+            map(BaseEntity::getId).
+            filter(Objects::nonNull).
+            distinct().
+            sorted().
+            collect(Collectors.toList());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            entityManager.createQuery("select e from " + type.getSimpleName() + " e where e.id in :ids order by e.id", type).
+                setParameter("ids", ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()))).
+                setLockMode(LockModeType.PESSIMISTIC_WRITE).
+                getResultList();
+        }
+    }
+
+    /**
+     * Locks the rows to move first, so that an edit of one of them either completes before or fails
+     * with an optimistic locking error after they have been moved. Readers include the archive before
+     * the rows appear there, which at worst costs them a query.
+     */
+    @Override
+    @Transactional
+    public int archiveFinished(LocalDateTime startedBefore, int limit) {
+        List<Object[]> due = entityManager.createQuery("select s.id, s.startTime from Study s " +
+            "where s.status = :finished and s.startTime < :before order by s.startTime, s.id", Object[].class).
+            setParameter("finished", Study.STATUS.finished).
+            setParameter("before", startedBefore).
+            setMaxResults(limit).
+            setLockMode(LockModeType.PESSIMISTIC_WRITE).
+            getResultList();
+        if (due.isEmpty()) return 0;
+
+        LocalDateTime last = (LocalDateTime) due.get(due.size() - 1)[1];
+        if (archivedUntil == null || last.isAfter(archivedUntil)) archivedUntil = last;
+        List<Integer> ids = due.stream().
+            map(row -> (Integer) row[0]).
+            collect(Collectors.toList());
+        entityManager.createQuery("insert into ArchivedStudy (id, patient, description, status, startTime, endTime, doctor, room) " +
+            "select s.id, s.patient, s.description, s.status, s.startTime, s.endTime, s.doctor, s.room " +
+            "from Study s where s.id in :ids").
+            setParameter("ids", ids).
+            executeUpdate();
+        entityManager.createQuery("delete from Study s where s.id in :ids").
+            setParameter("ids", ids).
+            executeUpdate();
+        return ids.size();
+    }
+
+    @Override
+    @Transactional
+    public <S extends Study> S save(S study) {
+        S saved;
+        if (study.isNew()) {
+            entityManager.persist(study);
+            saved = study;
+        } else {
+            // merge would insert a study archived meanwhile again as a new one
+            if (entityManager.find(Study.class, study.getId()) == null)
+                throw new ObjectOptimisticLockingFailureException(Study.class, study.getId());
+            saved = entityManager.merge(study);
+        }
+        index(saved);
+        return saved;
+    }
+
+    /**
+     * Updates the index right away so that concurrent bookings see the reservation,
+     * and restores the previous state if the transaction does not commit.
+     * Listeners of {@link StudyChangedEvent} are notified only after the commit.
+     */
+    private void index(Study study) {
+        StudyInterval previous = intervalIndex.remove(study.getId());
+        StudyInterval current = statuses.contains(study.getStatus()) ? intervalOf(study) : null;
+        if (current != null) intervalIndex.put(current);
+        StudyChangedEvent event = new StudyChangedEvent(study, previous);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                        eventPublisher.publishEvent(event);
+                        return;
+                    }
+                    intervalIndex.remove(study.getId());
+                    if (previous != null) intervalIndex.put(previous);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private StudyInterval intervalOf(Study study) {
+        return StudyInterval.of(study).withDefaultDuration(defaultDuration);
+    }
+
+    /**
+     * Merges two iterators of rows ordered by start time and id into one.
+     */
+    private static class MergingIterator implements Iterator<StudyRow> {
+
+        private final Iterator<StudyRow> first;
+        private final Iterator<StudyRow> second;
+        private StudyRow nextOfFirst;
+        private StudyRow nextOfSecond;
+
+        MergingIterator(Iterator<StudyRow> first, Iterator<StudyRow> second) {
+            this.first = first;
+            this.second = second;
+            this.nextOfFirst = first.hasNext() ? first.next() : null;
+            this.nextOfSecond = second.hasNext() ? second.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextOfFirst != null || nextOfSecond != null;
+        }
+
+        @Override
+        public StudyRow next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            StudyRow next;
+            if (nextOfSecond == null || nextOfFirst != null && BY_START_TIME.compare(nextOfFirst, nextOfSecond) <= 0) {
+                next = nextOfFirst;
+                nextOfFirst = first.hasNext() ? first.next() : null;
+            } else {
+                next = nextOfSecond;
+                nextOfSecond = second.hasNext() ? second.next() : null;
+            }
+            return next;
+        }
+    }
 }
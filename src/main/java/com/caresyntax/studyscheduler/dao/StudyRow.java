@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import com.caresyntax.studyscheduler.model.AbstractStudy;
+import com.caresyntax.studyscheduler.model.Study;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable row of a study list with the names of its patient, doctor and room.
+ * Rows are selected by a constructor expression, so no entities are loaded into the persistence context.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyRow {
+
+    private final Integer id;
+    private final Integer patientId;
+    private final String patientName;
+    private final Integer doctorId;
+    private final String doctorName;
+    private final Integer roomId;
+    private final String roomName;
+    private final String description;
+    private final Study.STATUS status;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final boolean archived;
+
+    public StudyRow(Integer id, Integer patientId, String patientName, Integer doctorId, String doctorName,
+                    Integer roomId, String roomName, String description, Study.STATUS status,
+                    LocalDateTime startTime, LocalDateTime endTime) {
+        this(id, patientId, patientName, doctorId, doctorName, roomId, roomName, description, status,
+            startTime, endTime, false);
+    }
+
+    private StudyRow(Integer id, Integer patientId, String patientName, Integer doctorId, String doctorName,
+                     Integer roomId, String roomName, String description, Study.STATUS status,
+                     LocalDateTime startTime, LocalDateTime endTime, boolean archived) {
+        this.id = id;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.roomId = roomId;
+        this.roomName = roomName;
+        this.description = description;
+        this.status = status;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.archived = archived;
+    }
+
+    public static StudyRow of(AbstractStudy study) {
+        return new StudyRow(study.getId(), study.getPatient().getId(), study.getPatient().getName(),
+            study.getDoctor().getId(), study.getDoctor().getName(), study.getRoom().getId(), study.getRoom().getName(),
+            study.getDescription(), study.getStatus(), study.getStartTime(), study.getEndTime(), study.isArchived());
+    }
+
+    /**
+     * @return the same row of a study read from the archive
+     */
+    public StudyRow archived() {
+        return new StudyRow(id, patientId, patientName, doctorId, doctorName, roomId, roomName, description, status,
+            startTime, endTime, true);
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Study.STATUS getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return true - if the study has been moved to the archive and can no longer be edited
+     */
+    public boolean isArchived() {
+        return archived;
+    }
+
+    @Override
+    public String toString() {
+        return "StudyRow{" +
+            "id=" + id +
+            ", patientName='" + patientName + '\'' +
+            ", doctorName='" + doctorName + '\'' +
+            ", roomName='" + roomName + '\'' +
+            ", status=" + status +
+            ", startTime=" + startTime +
+            ", endTime=" + endTime +
+            '}';
+    }
+}
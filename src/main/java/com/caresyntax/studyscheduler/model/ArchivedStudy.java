@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.model;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * A finished study moved out of the study table by the archiver. It keeps its id and is never changed again.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Entity
+@Table(name = "study_archive")
+@Immutable
+public class ArchivedStudy extends AbstractStudy {
+
+    @Override
+    public boolean isArchived() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedStudy{" +
+            "id=" + getId() +
+            ", description='" + getDescription() + '\'' +
+            ", startTime=" + getStartTime() +
+            ", endTime=" + getEndTime() +
+            '}';
+    }
+}
@@ -15,8 +15,10 @@
  */
 package com.caresyntax.studyscheduler.model;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 import java.io.Serializable;
@@ -24,13 +26,21 @@ import java.io.Serializable;
 /**
  * Simple JavaBean domain object with an id property. Used as a base class for objects
  * needing this property.
+ * <p>
+ * Ids come from one sequence per entity, <code>&lt;entity&gt;_seq</code>. Hibernate reserves 50 ids
+ * per sequence call, so new entities get their ids without a round trip and inserts can be batched.
  *
  * @author Mike Adamenko (mnadamenko@gmail.com)
  */
 @MappedSuperclass
 public class BaseEntity implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "pooled")
+    @GenericGenerator(name = "pooled", strategy = "enhanced-sequence", parameters = {
+        @Parameter(name = "prefer_sequence_per_entity", value = "true"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled")
+    })
     private Integer id;
 
     public Integer getId() {
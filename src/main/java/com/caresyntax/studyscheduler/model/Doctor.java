@@ -15,6 +15,10 @@
  */
 package com.caresyntax.studyscheduler.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 
 /**
@@ -23,6 +27,8 @@ import javax.persistence.Entity;
  * @author Mike Adamenko (mnadamenko@gmail.com)
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor")
 public class Doctor extends NamedEntity {
 
 }
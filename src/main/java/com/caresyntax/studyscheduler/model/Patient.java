@@ -15,6 +15,9 @@
  */
 package com.caresyntax.studyscheduler.model;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.persistence.*;
@@ -28,6 +31,8 @@ import java.util.List;
  */
 @Entity
 @Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patient")
 public class Patient extends NamedEntity {
 
     @Column
@@ -36,8 +41,10 @@ public class Patient extends NamedEntity {
     @Column
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate birthDate;
-    
-    @OneToMany(cascade = CascadeType.ALL, mappedBy = "patient", fetch = FetchType.EAGER)
+
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "patient")
+    @OrderBy("startTime")
+    @BatchSize(size = 20)
     private List<Study> studies;
 
     public SEX getSex() {
@@ -15,12 +15,10 @@
  */
 package com.caresyntax.studyscheduler.model;
 
-import org.springframework.format.annotation.DateTimeFormat;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
-import javax.validation.constraints.NotEmpty;
-import javax.validation.constraints.NotNull;
-import java.time.LocalDateTime;
 
 /**
  * Simple JavaBean domain object representing a Study.
@@ -29,102 +27,36 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table
-public class Study extends BaseEntity {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "study")
+public class Study extends AbstractStudy {
 
-    @ManyToOne
-    @JoinColumn(name = "patient_id", nullable = false)
-    private Patient patient;
+    @Version
+    private Integer version;
 
-    @Column(nullable = false)
-    @NotEmpty
-    private String description;
-
-    @Column(nullable = false)
-    private STATUS status;
-
-    @Column(nullable = false)
-    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm")
-    @NotNull
-    private LocalDateTime startTime;
-
-    @Column
-    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm")
-    private LocalDateTime endTime;
-
-    @ManyToOne
-    @JoinColumn(name = "doctor_id", nullable = false)
-    private Doctor doctor;
-
-    @ManyToOne
-    @JoinColumn(name = "room_id", nullable = false)
-    private Room room;
-
-    public Patient getPatient() {
-        return patient;
-    }
-
-    public void setPatient(Patient patient) {
-        this.patient = patient;
+    public Integer getVersion() {
+        return version;
     }
 
-    public String getDescription() {
-        return description;
+    public void setVersion(Integer version) {
+        this.version = version;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
-    public STATUS getStatus() {
-        return status;
-    }
-
-    public void setStatus(STATUS status) {
-        this.status = status;
-    }
-
-    public LocalDateTime getStartTime() {
-        return startTime;
-    }
-
-    public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
-    }
-
-    public LocalDateTime getEndTime() {
-        return endTime;
-    }
-
-    public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
-    }
-
-    public Doctor getDoctor() {
-        return doctor;
-    }
-
-    public void setDoctor(Doctor doctor) {
-        this.doctor = doctor;
-    }
-
-    public Room getRoom() {
-        return room;
-    }
-
-    public void setRoom(Room room) {
-        this.room = room;
+    @Override
+    public boolean isArchived() {
+        return false;
     }
 
     @Override
     public String toString() {
         return "Study{" +
-            "patient=" + patient +
-            ", description='" + description + '\'' +
-            ", status=" + status +
-            ", startTime=" + startTime +
-            ", endTime=" + endTime +
-            ", doctor=" + doctor +
-            ", room=" + room +
+            "patient=" + getPatient() +
+            ", description='" + getDescription() + '\'' +
+            ", status=" + getStatus() +
+            ", startTime=" + getStartTime() +
+            ", endTime=" + getEndTime() +
+            ", doctor=" + getDoctor() +
+            ", room=" + getRoom() +
             '}';
     }
 
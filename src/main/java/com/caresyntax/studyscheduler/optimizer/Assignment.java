@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Doctor, room and time assigned to a requested study.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class Assignment {
+
+    private final int request;
+    private final Integer patientId;
+    private final Integer doctorId;
+    private final Integer roomId;
+    private final String description;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    Assignment(int request, Integer patientId, Integer doctorId, Integer roomId, String description,
+               LocalDateTime startTime, LocalDateTime endTime) {
+        this.request = request;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.roomId = roomId;
+        this.description = description;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return position of the request in the input, starting at 0
+     */
+    public int getRequest() {
+        return request;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    @Override
+    public String toString() {
+        return "Assignment{" +
+            "request=" + request +
+            ", doctorId=" + doctorId +
+            ", roomId=" + roomId +
+            ", startTime=" + startTime +
+            ", endTime=" + endTime +
+            '}';
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan of the requests of a single day. Every doctor, room and patient has one bit per slot
+ * of the working day, set for the slots occupied by stored or planned studies.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+class DayPlan {
+
+    /**
+     * Bounds the local search of an overbooked day, each move costs two placements.
+     */
+    static final int MAX_MOVES = 2000;
+
+    private final SchedulePlanner planner;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final int slotsPerDay;
+    private final List<StudyRequest> requests;
+    private final List<Integer> positions;
+    private final int[] doctors;
+    private final int[] rooms;
+    private final BitSet[] doctorBits;
+    private final BitSet[] roomBits;
+    private final int[] roomLoad;
+    private final Map<Integer, BitSet> patientBits = new HashMap<>();
+
+    // per request of the day: required slots and placement, -1 if not placed
+    private final int[] lengths;
+    private final int[] slot;
+    private final int[] doctor;
+    private final int[] room;
+
+    DayPlan(SchedulePlanner planner, LocalDate day, List<StudyRequest> requests, List<Integer> positions,
+            int[] doctors, int[] rooms) {
+        this.planner = planner;
+        this.start = day.atTime(planner.getDayStart());
+        this.slotsPerDay = planner.getSlotsPerDay();
+        this.end = start.plus(planner.getStep().multipliedBy(slotsPerDay));
+        this.requests = requests;
+        this.positions = positions;
+        this.doctors = doctors;
+        this.rooms = rooms;
+        this.doctorBits = new BitSet[doctors.length];
+        this.roomBits = new BitSet[rooms.length];
+        for (int d = 0; d < doctors.length; d++) doctorBits[d] = new BitSet(slotsPerDay);
+        for (int r = 0; r < rooms.length; r++) roomBits[r] = new BitSet(slotsPerDay);
+        this.roomLoad = new int[rooms.length];
+        this.lengths = new int[positions.size()];
+        this.slot = new int[positions.size()];
+        this.doctor = new int[positions.size()];
+        this.room = new int[positions.size()];
+    }
+
+    DayPlan plan() {
+        markStoredStudies();
+        Integer[] order = new Integer[positions.size()];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+            lengths[k] = planner.slots(request(k));
+            slot[k] = -1;
+        }
+        // longest first, requests bound to a doctor before the flexible ones
+        Arrays.sort(order, Comparator.<Integer>comparingInt(k -> -lengths[k]).
+            thenComparing(k -> request(k).getDoctorId() == null).
+            thenComparingInt(k -> k));
+
+        List<Integer> unplaced = new ArrayList<>();
+        for (int k : order) {
+            if (!place(k)) unplaced.add(k);
+        }
+        improve(unplaced);
+        return this;
+    }
+
+    void addTo(OptimizedSchedule schedule) {
+        for (int k = 0; k < positions.size(); k++) {
+            StudyRequest request = request(k);
+            if (slot[k] < 0) {
+                schedule.reject(positions.get(k), "no free doctor and room for the patient on " + request.getDay());
+                continue;
+            }
+            LocalDateTime startTime = start.plus(planner.getStep().multipliedBy(slot[k]));
+            schedule.add(new Assignment(positions.get(k), request.getPatientId(), doctors[doctor[k]], rooms[room[k]],
+                request.getDescription(), startTime, startTime.plusMinutes(request.getMinutes())));
+        }
+        long occupied = 0;
+        for (BitSet bits : roomBits) occupied += bits.cardinality();
+        schedule.addSlots(occupied, (long) rooms.length * slotsPerDay);
+    }
+
+    /**
+     * Retries every unplaced request after moving one placed study elsewhere. Studies of the same
+     * patient or the same requested doctor are tried first, as they are the likely obstacle.
+     */
+    private void improve(List<Integer> unplaced) {
+        int moves = 0;
+        for (int k : unplaced) {
+            List<Integer> candidates = new ArrayList<>();
+            for (int j = 0; j < positions.size(); j++) {
+                if (slot[j] >= 0) candidates.add(j);
+            }
+            candidates.sort(Comparator.comparing(j -> !isRelated(k, j)));
+            for (int j : candidates) {
+                if (moves++ >= MAX_MOVES) return;
+                if (move(j, k)) break;
+            }
+        }
+    }
+
+    private boolean isRelated(int k, int j) {
+        StudyRequest request = request(k);
+        return request.getPatientId().equals(request(j).getPatientId()) ||
+            (request.getDoctorId() != null && doctors[doctor[j]] == request.getDoctorId());
+    }
+
+    /**
+     * @return true - if both k and the moved study j are placed, otherwise j is restored
+     */
+    private boolean move(int j, int k) {
+        int oldSlot = slot[j], oldDoctor = doctor[j], oldRoom = room[j];
+        unmark(j);
+        if (place(k)) {
+            if (place(j)) return true;
+            unmark(k);
+        }
+        slot[j] = oldSlot;
+        doctor[j] = oldDoctor;
+        room[j] = oldRoom;
+        mark(j);
+        return false;
+    }
+
+    /**
+     * Places the request at the earliest slot where the patient, a doctor and a room are free,
+     * in the fullest of the free rooms.
+     */
+    private boolean place(int k) {
+        StudyRequest request = request(k);
+        BitSet patient = patient(request.getPatientId());
+        int length = lengths[k];
+        for (int s = 0; s + length <= slotsPerDay; s++) {
+            int conflict = firstSet(patient, s, s + length);
+            if (conflict >= 0) {
+                s = conflict;
+                continue;
+            }
+            int d = freeDoctor(request.getDoctorId(), s, length);
+            int r = d < 0 ? -1 : fullestFreeRoom(s, length);
+            if (r < 0) continue;
+            slot[k] = s;
+            doctor[k] = d;
+            room[k] = r;
+            mark(k);
+            return true;
+        }
+        return false;
+    }
+
+    private int freeDoctor(Integer doctorId, int from, int length) {
+        for (int d = 0; d < doctors.length; d++) {
+            if (doctorId != null && doctors[d] != doctorId) continue;
+            if (firstSet(doctorBits[d], from, from + length) < 0) return d;
+        }
+        return -1;
+    }
+
+    private int fullestFreeRoom(int from, int length) {
+        int fullest = -1;
+        for (int r = 0; r < rooms.length; r++) {
+            if ((fullest < 0 || roomLoad[r] > roomLoad[fullest]) && firstSet(roomBits[r], from, from + length) < 0)
+                fullest = r;
+        }
+        return fullest;
+    }
+
+    private static int firstSet(BitSet bits, int from, int to) {
+        int next = bits.nextSetBit(from);
+        return next >= 0 && next < to ? next : -1;
+    }
+
+    private void mark(int k) {
+        int from = slot[k], to = slot[k] + lengths[k];
+        doctorBits[doctor[k]].set(from, to);
+        roomBits[room[k]].set(from, to);
+        patient(request(k).getPatientId()).set(from, to);
+        roomLoad[room[k]] += lengths[k];
+    }
+
+    private void unmark(int k) {
+        int from = slot[k], to = slot[k] + lengths[k];
+        doctorBits[doctor[k]].clear(from, to);
+        roomBits[room[k]].clear(from, to);
+        patient(request(k).getPatientId()).clear(from, to);
+        roomLoad[room[k]] -= lengths[k];
+        slot[k] = -1;
+    }
+
+    private void markStoredStudies() {
+        for (int d = 0; d < doctors.length; d++) {
+            for (StudyInterval interval : planner.getIntervalIndex().findDoctorIntervals(doctors[d], start, end))
+                mark(doctorBits[d], interval);
+        }
+        for (int r = 0; r < rooms.length; r++) {
+            for (StudyInterval interval : planner.getIntervalIndex().findRoomIntervals(rooms[r], start, end))
+                mark(roomBits[r], interval);
+            roomLoad[r] = roomBits[r].cardinality();
+        }
+        for (Integer position : positions) {
+            Integer patientId = requests.get(position).getPatientId();
+            if (patientBits.containsKey(patientId)) continue;
+            BitSet bits = patient(patientId);
+            for (StudyInterval interval : planner.getIntervalIndex().findPatientIntervals(patientId, start, end))
+                mark(bits, interval);
+        }
+    }
+
+    // slots are rounded outwards, a study without length occupies its start slot
+    private void mark(BitSet bits, StudyInterval interval) {
+        long stepNanos = planner.getStep().toNanos();
+        long startNanos = Duration.between(start, interval.getStart()).toNanos();
+        long endNanos = Duration.between(start, interval.getEnd()).toNanos();
+        int from = (int) Math.max(0, Math.floorDiv(startNanos, stepNanos));
+        int to = (int) Math.min(slotsPerDay, Math.floorDiv(endNanos + stepNanos - 1, stepNanos));
+        if (to <= from) to = from + 1;
+        if (from < slotsPerDay) bits.set(from, Math.min(to, slotsPerDay));
+    }
+
+    private StudyRequest request(int k) {
+        return requests.get(positions.get(k));
+    }
+
+    private BitSet patient(Integer patientId) {
+        return patientBits.computeIfAbsent(patientId, id -> new BitSet(slotsPerDay));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of an optimization: the assigned studies and the requests that could not be placed.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class OptimizedSchedule {
+
+    private final List<Assignment> assignments = new ArrayList<>();
+    private final List<Rejection> rejections = new ArrayList<>();
+    private long occupiedSlots;
+    private long availableSlots;
+    private boolean saved;
+
+    /**
+     * @return assigned studies in the order of the requests
+     */
+    public List<Assignment> getAssignments() {
+        return Collections.unmodifiableList(assignments);
+    }
+
+    /**
+     * @return requests without assignment in the order of the requests
+     */
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    /**
+     * @return share of the working time of all rooms occupied after the plan, over the planned days
+     */
+    public double getRoomUtilization() {
+        return availableSlots == 0 ? 0 : (double) occupiedSlots / availableSlots;
+    }
+
+    /**
+     * @return true - if the assignments were stored as planned studies
+     */
+    public boolean isSaved() {
+        return saved;
+    }
+
+    void add(Assignment assignment) {
+        assignments.add(assignment);
+    }
+
+    void reject(int request, String message) {
+        rejections.add(new Rejection(request, message));
+    }
+
+    void addSlots(long occupied, long available) {
+        occupiedSlots += occupied;
+        availableSlots += available;
+    }
+
+    void sort() {
+        assignments.sort(Comparator.comparingInt(Assignment::getRequest));
+        rejections.sort(Comparator.comparingInt(Rejection::getRequest));
+    }
+
+    void markSaved() {
+        saved = true;
+    }
+
+    @Override
+    public String toString() {
+        return "OptimizedSchedule{" +
+            "assignments=" + assignments.size() +
+            ", rejections=" + rejections.size() +
+            ", roomUtilization=" + getRoomUtilization() +
+            '}';
+    }
+
+    /**
+     * Reason why a request was not assigned.
+     */
+    public static class Rejection {
+        private final int request;
+        private final String message;
+
+        Rejection(int request, String message) {
+            this.request = request;
+            this.message = message;
+        }
+
+        /**
+         * @return position of the request in the input, starting at 0
+         */
+        public int getRequest() {
+            return request;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "request " + request + ": " + message;
+        }
+    }
+}
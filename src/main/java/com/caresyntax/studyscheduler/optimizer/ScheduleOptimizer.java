@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Plans many requested studies at once and stores the plan.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ * @see SchedulePlanner
+ */
+@Service
+public class ScheduleOptimizer {
+
+    static final int CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StudyRepository studyRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final SchedulePlanner planner;
+    private final Duration defaultDuration;
+
+    public ScheduleOptimizer(StudyIntervalIndex intervalIndex, StudyRepository studyRepository,
+                             PatientRepository patientRepository, DoctorRepository doctorRepository,
+                             RoomRepository roomRepository,
+                             @Value("${studyscheduler.optimizer.day-start}") String dayStart,
+                             @Value("${studyscheduler.optimizer.day-end}") String dayEnd,
+                             @Value("${studyscheduler.study.slot-step}") Duration step,
+                             @Value("${studyscheduler.study.default-duration}") Duration defaultDuration) {
+        this.studyRepository = studyRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.planner = new SchedulePlanner(intervalIndex, LocalTime.parse(dayStart), LocalTime.parse(dayEnd), step);
+        this.defaultDuration = defaultDuration;
+    }
+
+    /**
+     * @param requests requested studies, requests without minutes last the default duration
+     * @return assignments and rejections in the order of the requests, nothing is stored
+     */
+    public OptimizedSchedule optimize(List<StudyRequest> requests) {
+        List<StudyRequest> withDuration = requests.stream().
+            map(request -> request.getMinutes() != null ? request : new StudyRequest(request.getPatientId(),
+                request.getDoctorId(), request.getDescription(), request.getDay(), (int) defaultDuration.toMinutes())).
+            collect(Collectors.toList());
+        Set<Integer> patientIds = patientRepository.findExistingIds(requests.stream().
+            map(StudyRequest::getPatientId).
+            filter(Objects::nonNull).
+            collect(Collectors.toSet()));
+        return planner.plan(withDuration, ids(doctorRepository.findAll()), ids(roomRepository.findAll()), patientIds);
+    }
+
+    /**
+     * Stores the assignments as planned studies in one transaction. The patients, doctors and rooms
+     * are locked first and each study is checked again, so a study stored by somebody else since
+     * the optimization rolls back the whole plan.
+     *
+     * @param schedule optimized schedule
+     * @throws ScheduleConflictException if an assignment overlaps a stored study
+     */
+    @Transactional
+    public void save(OptimizedSchedule schedule) {
+        List<Study> studies = new ArrayList<>(schedule.getAssignments().size());
+        for (Assignment assignment : schedule.getAssignments()) {
+            Study study = new Study();
+            study.setPatient(patientRepository.getOne(assignment.getPatientId()));
+            study.setDoctor(doctorRepository.getOne(assignment.getDoctorId()));
+            study.setRoom(roomRepository.getOne(assignment.getRoomId()));
+            study.setDescription(assignment.getDescription());
+            study.setStatus(Study.STATUS.planned);
+            study.setStartTime(assignment.getStartTime());
+            study.setEndTime(assignment.getEndTime());
+            studies.add(study);
+        }
+        studyRepository.lockResources(studies);
+
+        for (int i = 0; i < studies.size(); i++) {
+            Study study = studies.get(i);
+            if (studyRepository.isExistStoredIntersectingStudies(study)) {
+                SchedulingMetrics.conflictRejected("optimizer");
+                throw new ScheduleConflictException("Request " + schedule.getAssignments().get(i).getRequest() +
+                    " overlaps a study stored meanwhile");
+            }
+            studyRepository.save(study);
+            if ((i + 1) % CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        schedule.markSaved();
+    }
+
+    private static List<Integer> ids(List<? extends BaseEntity> entities) {
+        return entities.stream().map(BaseEntity::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns requested studies to doctors, rooms and times without conflicts with each other
+ * and with the studies in the interval index.
+ * <p>
+ * Each day of the working hours is divided into slots of the configured step. Requests are placed
+ * greedily, longest first, at the earliest slot where the patient, a doctor and a room are free,
+ * preferring the fullest room so that studies are packed into few rooms. Requests that do not fit are
+ * then retried by moving one placed study of the same day elsewhere. Days do not share resources,
+ * so they are planned in parallel on the common fork/join pool.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class SchedulePlanner {
+
+    private final StudyIntervalIndex intervalIndex;
+    private final LocalTime dayStart;
+    private final Duration step;
+    private final int slotsPerDay;
+
+    public SchedulePlanner(StudyIntervalIndex intervalIndex, LocalTime dayStart, LocalTime dayEnd, Duration step) {
+        if (step.isNegative() || step.isZero()) throw new IllegalArgumentException("Step must be positive: " + step);
+        if (!dayEnd.isAfter(dayStart))
+            throw new IllegalArgumentException("Working day must end after " + dayStart + ": " + dayEnd);
+        this.intervalIndex = intervalIndex;
+        this.dayStart = dayStart;
+        this.step = step;
+        this.slotsPerDay = (int) (Duration.between(dayStart, dayEnd).toNanos() / step.toNanos());
+    }
+
+    /**
+     * @param requests   requested studies, the minutes must be set
+     * @param doctorIds  doctors that may be assigned
+     * @param roomIds    rooms that may be assigned
+     * @param patientIds known patients of the requests
+     * @return assignments and rejections in the order of the requests, nothing is stored
+     */
+    public OptimizedSchedule plan(List<StudyRequest> requests, Collection<Integer> doctorIds,
+                                  Collection<Integer> roomIds, Set<Integer> patientIds) {
+        OptimizedSchedule schedule = new OptimizedSchedule();
+        Map<LocalDate, List<Integer>> byDay = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i), doctorIds, roomIds, patientIds);
+            if (error != null) schedule.reject(i, error);
+            else byDay.computeIfAbsent(requests.get(i).getDay(), day -> new ArrayList<>()).add(i);
+        }
+
+        int[] doctors = doctorIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] rooms = roomIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+        List<DayPlan> plans = byDay.entrySet().parallelStream().
+            map(day -> new DayPlan(this, day.getKey(), requests, day.getValue(), doctors, rooms).plan()).
+            collect(Collectors.toList());
+        plans.forEach(plan -> plan.addTo(schedule));
+        schedule.sort();
+        return schedule;
+    }
+
+    private String validate(StudyRequest request, Collection<Integer> doctorIds, Collection<Integer> roomIds,
+                            Set<Integer> patientIds) {
+        if (request.getDay() == null) return "day: is required";
+        if (!StringUtils.hasText(request.getDescription())) return "description: is required";
+        if (request.getPatientId() == null || !patientIds.contains(request.getPatientId()))
+            return "patientId: unknown patient " + request.getPatientId();
+        if (request.getDoctorId() != null && !doctorIds.contains(request.getDoctorId()))
+            return "doctorId: unknown doctor " + request.getDoctorId();
+        if (request.getMinutes() == null || request.getMinutes() <= 0) return "minutes: must be positive";
+        if (slots(request) > slotsPerDay) return "minutes: longer than the working day";
+        if (doctorIds.isEmpty() || roomIds.isEmpty()) return "no doctors or rooms";
+        return null;
+    }
+
+    int slots(StudyRequest request) {
+        long stepNanos = step.toNanos();
+        return (int) ((Duration.ofMinutes(request.getMinutes()).toNanos() + stepNanos - 1) / stepNanos);
+    }
+
+    StudyIntervalIndex getIntervalIndex() {
+        return intervalIndex;
+    }
+
+    LocalTime getDayStart() {
+        return dayStart;
+    }
+
+    Duration getStep() {
+        return step;
+    }
+
+    int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+}
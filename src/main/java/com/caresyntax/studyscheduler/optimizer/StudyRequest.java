@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import java.time.LocalDate;
+
+/**
+ * A study that should take place on a day, without doctor, room or time yet.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyRequest {
+
+    private Integer patientId;
+    private Integer doctorId;
+    private String description;
+    private LocalDate day;
+    private Integer minutes;
+
+    public StudyRequest() {
+    }
+
+    public StudyRequest(Integer patientId, Integer doctorId, String description, LocalDate day, Integer minutes) {
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.description = description;
+        this.day = day;
+        this.minutes = minutes;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Integer patientId) {
+        this.patientId = patientId;
+    }
+
+    /**
+     * @return requested doctor or null if any doctor may perform the study
+     */
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Integer doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    /**
+     * @return duration of the study or null for the default duration
+     */
+    public Integer getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(Integer minutes) {
+        this.minutes = minutes;
+    }
+
+    @Override
+    public String toString() {
+        return "StudyRequest{" +
+            "patientId=" + patientId +
+            ", doctorId=" + doctorId +
+            ", day=" + day +
+            ", minutes=" + minutes +
+            '}';
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Immutable number of active studies and booked minutes of a doctor or room on one day.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class DaySummary {
+
+    private final LocalDate day;
+    private final int studies;
+    private final int bookedMinutes;
+
+    public DaySummary(LocalDate day, int studies, int bookedMinutes) {
+        this.day = day;
+        this.studies = studies;
+        this.bookedMinutes = bookedMinutes;
+    }
+
+    public static DaySummary empty(LocalDate day) {
+        return new DaySummary(day, 0, 0);
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public int getStudies() {
+        return studies;
+    }
+
+    public int getBookedMinutes() {
+        return bookedMinutes;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return studies == 0;
+    }
+
+    DaySummary plus(int studies, int bookedMinutes) {
+        return new DaySummary(day, this.studies + studies, this.bookedMinutes + bookedMinutes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DaySummary that = (DaySummary) o;
+        return studies == that.studies && bookedMinutes == that.bookedMinutes && day.equals(that.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(day, studies, bookedMinutes);
+    }
+
+    @Override
+    public String toString() {
+        return "DaySummary{" +
+            "day=" + day +
+            ", studies=" + studies +
+            ", bookedMinutes=" + bookedMinutes +
+            '}';
+    }
+}
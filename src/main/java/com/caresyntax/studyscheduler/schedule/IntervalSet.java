@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Intervals of a single resource in a balanced search tree ordered by start time.
+ * <p>
+ * Every node also holds the latest end of the intervals below it, so overlap lookups skip
+ * all subtrees ending before the candidate and all intervals starting after it. A query
+ * costs O(log n + k) where k is the number of intervals intersecting the candidate.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+class IntervalSet {
+
+    private static final Comparator<Integer> BY_ID = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private Node root;
+
+    private int size;
+
+    synchronized void add(StudyInterval interval) {
+        root = insert(root, interval);
+        size++;
+    }
+
+    synchronized boolean remove(StudyInterval interval) {
+        int before = size;
+        root = delete(root, interval);
+        return size < before;
+    }
+
+    /**
+     * @param candidate interval to check
+     * @return true - if any interval except the candidate's own study intersects it
+     */
+    synchronized boolean intersects(StudyInterval candidate) {
+        return intersects(root, candidate);
+    }
+
+    /**
+     * @param from window start, inclusive
+     * @param to   window end, exclusive
+     * @return intervals intersecting the window sorted by start time
+     */
+    synchronized List<StudyInterval> intersecting(LocalDateTime from, LocalDateTime to) {
+        List<StudyInterval> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static boolean intersects(Node node, StudyInterval candidate) {
+        while (node != null && !node.maxEnd.isBefore(candidate.getStart())) {
+            if (intersects(node.left, candidate)) return true;
+            StudyInterval interval = node.interval;
+            // intervals starting at the same time intersect even if they have no length
+            if (!interval.getStart().isBefore(candidate.getEnd()) && !interval.getStart().equals(candidate.getStart()))
+                return false;
+            if (!Objects.equals(interval.getStudyId(), candidate.getStudyId()) && interval.intersects(candidate))
+                return true;
+            node = node.right;
+        }
+        return false;
+    }
+
+    private static void collect(Node node, LocalDateTime from, LocalDateTime to, List<StudyInterval> result) {
+        while (node != null && !node.maxEnd.isBefore(from)) {
+            collect(node.left, from, to, result);
+            StudyInterval interval = node.interval;
+            if (!interval.getStart().isBefore(to)) return;
+            if (interval.getEnd().isAfter(from) || !interval.getStart().isBefore(from)) result.add(interval);
+            node = node.right;
+        }
+    }
+
+    private static int compare(StudyInterval a, StudyInterval b) {
+        int result = a.getStart().compareTo(b.getStart());
+        return result != 0 ? result : BY_ID.compare(a.getStudyId(), b.getStudyId());
+    }
+
+    private static Node insert(Node node, StudyInterval interval) {
+        if (node == null) return new Node(interval);
+        if (compare(interval, node.interval) < 0) node.left = insert(node.left, interval);
+        else node.right = insert(node.right, interval);
+        return balance(node);
+    }
+
+    private Node delete(Node node, StudyInterval interval) {
+        if (node == null) return null;
+        int result = compare(interval, node.interval);
+        if (result < 0) {
+            node.left = delete(node.left, interval);
+        } else if (result > 0) {
+            node.right = delete(node.right, interval);
+        } else {
+            size--;
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node next = node.right;
+            while (next.left != null) next = next.left;
+            node.right = deleteFirst(node.right);
+            next.left = node.left;
+            next.right = node.right;
+            node = next;
+        }
+        return balance(node);
+    }
+
+    private static Node deleteFirst(Node node) {
+        if (node.left == null) return node.right;
+        node.left = deleteFirst(node.left);
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        node.update();
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+
+        private final StudyInterval interval;
+        private Node left;
+        private Node right;
+        private int height;
+        // latest end of the intervals in this subtree
+        private LocalDateTime maxEnd;
+
+        private Node(StudyInterval interval) {
+            this.interval = interval;
+            update();
+        }
+
+        private void update() {
+            height = Math.max(height(left), height(right)) + 1;
+            maxEnd = interval.getEnd();
+            if (left != null && left.maxEnd.isAfter(maxEnd)) maxEnd = left.maxEnd;
+            if (right != null && right.maxEnd.isAfter(maxEnd)) maxEnd = right.maxEnd;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Number of active studies and booked minutes per doctor or room and day, for the calendar.
+ * <p>
+ * Every change of the interval index moves the counts of the previous interval of the study to its
+ * current one, so the summary is never recomputed from the stored studies and a week is read with
+ * seven lookups regardless of the history size. A study lasting over midnight counts on every day it covers.
+ * Not lazy, since building it walks the whole index.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+@Lazy(false)
+public class OccupancySummary implements StudyIntervalIndex.Listener {
+
+    private final StudyIntervalIndex intervalIndex;
+    private final Map<Resource, Map<Integer, Map<LocalDate, DaySummary>>> summaries = new EnumMap<>(Resource.class);
+
+    public OccupancySummary(StudyIntervalIndex intervalIndex) {
+        this.intervalIndex = intervalIndex;
+        for (Resource resource : Resource.values()) summaries.put(resource, new ConcurrentHashMap<>());
+        intervalIndex.addListener(this);
+        indexReloaded();
+    }
+
+    /**
+     * @param resource doctor or room
+     * @param id       doctor or room id
+     * @param day      day
+     * @return summary of the day, empty if nothing is booked
+     */
+    public DaySummary getDay(Resource resource, Integer id, LocalDate day) {
+        Map<LocalDate, DaySummary> days = summaries.get(resource).get(id);
+        DaySummary summary = days == null ? null : days.get(day);
+        return summary == null ? DaySummary.empty(day) : summary;
+    }
+
+    /**
+     * @param resource doctor or room
+     * @param id       doctor or room id
+     * @param from     first day
+     * @param days     number of days
+     * @return summaries of the consecutive days
+     */
+    public List<DaySummary> getDays(Resource resource, Integer id, LocalDate from, int days) {
+        List<DaySummary> result = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) result.add(getDay(resource, id, from.plusDays(i)));
+        return result;
+    }
+
+    @Override
+    public void intervalChanged(StudyInterval previous, StudyInterval current) {
+        if (previous != null) add(summaries, previous, -1);
+        if (current != null) add(summaries, current, 1);
+    }
+
+    @Override
+    public void indexReloaded() {
+        Map<Resource, Map<Integer, Map<LocalDate, DaySummary>>> reloaded = new EnumMap<>(Resource.class);
+        for (Resource resource : Resource.values()) reloaded.put(resource, new HashMap<>());
+        intervalIndex.getIntervals().forEach(interval -> add(reloaded, interval, 1));
+        for (Resource resource : Resource.values()) {
+            Map<Integer, Map<LocalDate, DaySummary>> byId = summaries.get(resource);
+            byId.clear();
+            reloaded.get(resource).forEach((id, days) -> byId.put(id, new ConcurrentHashMap<>(days)));
+        }
+    }
+
+    private static void add(Map<Resource, Map<Integer, Map<LocalDate, DaySummary>>> target, StudyInterval interval, int sign) {
+        add(target.get(Resource.doctor), interval.getDoctorId(), interval, sign);
+        add(target.get(Resource.room), interval.getRoomId(), interval, sign);
+    }
+
+    private static void add(Map<Integer, Map<LocalDate, DaySummary>> byId, Integer id, StudyInterval interval, int sign) {
+        if (id == null) return;
+        Map<LocalDate, DaySummary> days = byId.computeIfAbsent(id, key -> new ConcurrentHashMap<>());
+        LocalDateTime start = interval.getStart();
+        LocalDateTime end = interval.getEnd();
+        LocalDate lastDay = end.isAfter(start) ? end.minusNanos(1).toLocalDate() : start.toLocalDate();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            LocalDateTime from = max(start, day.atStartOfDay());
+            LocalDateTime to = min(end, day.plusDays(1).atStartOfDay());
+            int minutes = (int) Duration.between(from, to).toMinutes();
+            DaySummary summary = days.getOrDefault(day, DaySummary.empty(day)).plus(sign, sign * Math.max(minutes, 0));
+            if (summary.isEmpty()) days.remove(day);
+            else days.put(day, summary);
+        }
+        if (days.isEmpty()) byId.remove(id);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Resources with a calendar.
+     */
+    public enum Resource {
+        doctor, room
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process locks of the patients, doctors and rooms being booked.
+ * <p>
+ * Every resource kind has its own array of lock stripes chosen by id, so reservations of different
+ * resources take different locks as long as the ids differ by less than the number of stripes.
+ * A reservation takes the locks of the patient, the doctor and the room in that order, which is also
+ * the order of the database row locks, so two reservations can never wait for each other crosswise.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class ReservationLockManager {
+
+    private final Stripes patients;
+    private final Stripes doctors;
+    private final Stripes rooms;
+
+    public ReservationLockManager(@Value("${studyscheduler.reservation.lock-stripes}") int stripes) {
+        if (stripes <= 0) throw new IllegalArgumentException("Number of lock stripes must be positive: " + stripes);
+        this.patients = new Stripes("patient", stripes);
+        this.doctors = new Stripes("doctor", stripes);
+        this.rooms = new Stripes("room", stripes);
+    }
+
+    /**
+     * Locks the patient, doctor and room of the study.
+     *
+     * @param study study
+     * @return reservation to close when the study is stored
+     */
+    public Reservation reserve(Study study) {
+        return reserve(idOf(study.getPatient()), idOf(study.getDoctor()), idOf(study.getRoom()));
+    }
+
+    /**
+     * Locks the given resources and waits as long as another reservation holds one of them.
+     *
+     * @param patientId patient id or null
+     * @param doctorId  doctor id or null
+     * @param roomId    room id or null
+     * @return reservation to close when the study is stored
+     */
+    public Reservation reserve(Integer patientId, Integer doctorId, Integer roomId) {
+        Reservation reservation = new Reservation();
+        reservation.lock(patients, patientId);
+        reservation.lock(doctors, doctorId);
+        reservation.lock(rooms, roomId);
+        return reservation;
+    }
+
+    private static Integer idOf(BaseEntity entity) {
+        return entity == null ? null : entity.getId();
+    }
+
+    /**
+     * Locks held by one thread, released in reverse order on close.
+     */
+    public static final class Reservation implements AutoCloseable {
+
+        private final Deque<ReentrantLock> locks = new ArrayDeque<>(3);
+
+        private Reservation() {
+        }
+
+        private void lock(Stripes stripes, Integer id) {
+            if (id == null) return;
+            ReentrantLock lock = stripes.get(id);
+            if (!lock.tryLock()) {
+                stripes.contended.increment();
+                long start = System.nanoTime();
+                lock.lock();
+                stripes.waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            locks.push(lock);
+        }
+
+        @Override
+        public void close() {
+            while (!locks.isEmpty()) locks.pop().unlock();
+        }
+    }
+
+    private static final class Stripes {
+
+        private final ReentrantLock[] locks;
+        private final Counter contended;
+        private final Timer waits;
+
+        Stripes(String resource, int size) {
+            this.locks = new ReentrantLock[size];
+            for (int i = 0; i < size; i++) locks[i] = new ReentrantLock();
+            this.contended = Metrics.counter(SchedulingMetrics.RESERVATION_CONTENDED, "resource", resource);
+            this.waits = Metrics.timer(SchedulingMetrics.RESERVATION_WAIT, "resource", resource);
+        }
+
+        ReentrantLock get(int id) {
+            return locks[Math.floorMod(id, locks.length)];
+        }
+    }
+}
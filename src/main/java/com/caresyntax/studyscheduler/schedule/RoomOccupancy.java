@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Occupancy of every room as one bit per time slot and day.
+ * <p>
+ * Slots are rounded outwards, so a room counts as busy for the whole slot
+ * when any study covers a part of it. Day bitsets are rebuilt from the interval
+ * index on every change and never modified after they are published, so lookups
+ * need no locking.
+ * <p>
+ * Created at startup even when the other beans are lazy, so the first booking does not wait for it to be built.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+@Lazy(false)
+public class RoomOccupancy implements StudyIntervalIndex.Listener {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final StudyIntervalIndex intervalIndex;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final Map<Integer, Map<LocalDate, BitSet>> byRoom = new ConcurrentHashMap<>();
+
+    public RoomOccupancy(StudyIntervalIndex intervalIndex,
+                         @Value("${studyscheduler.room.slot-duration}") Duration slotDuration) {
+        this.intervalIndex = intervalIndex;
+        this.slotMinutes = (int) slotDuration.toMinutes();
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0)
+            throw new IllegalArgumentException("Slot duration must divide a day into whole minutes: " + slotDuration);
+        this.slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+        intervalIndex.addListener(this);
+        indexReloaded();
+    }
+
+    /**
+     * @param roomId room id
+     * @param start  start time
+     * @param end    end time
+     * @return true - if no slot between start and end is occupied
+     */
+    public boolean isFree(Integer roomId, LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, BitSet> days = byRoom.get(roomId);
+        if (days == null) return true;
+        LocalDate lastDay = lastDay(start, end);
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            BitSet bits = days.get(day);
+            if (bits == null) continue;
+            int from = fromSlot(day, start);
+            int next = bits.nextSetBit(from);
+            if (next >= 0 && next < toSlot(day, from, end)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param roomId room id
+     * @param day    day
+     * @return number of occupied slots of the room on the day
+     */
+    public int getOccupiedSlots(Integer roomId, LocalDate day) {
+        Map<LocalDate, BitSet> days = byRoom.get(roomId);
+        BitSet bits = days == null ? null : days.get(day);
+        return bits == null ? 0 : bits.cardinality();
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    @Override
+    public void intervalChanged(StudyInterval previous, StudyInterval current) {
+        if (previous != null) refresh(previous);
+        if (current != null) refresh(current);
+    }
+
+    @Override
+    public void indexReloaded() {
+        Map<Integer, Map<LocalDate, BitSet>> rooms = new HashMap<>();
+        for (StudyInterval interval : intervalIndex.getIntervals()) {
+            if (interval.getRoomId() == null) continue;
+            Map<LocalDate, BitSet> days = rooms.computeIfAbsent(interval.getRoomId(), roomId -> new HashMap<>());
+            LocalDate lastDay = lastDay(interval.getStart(), interval.getEnd());
+            for (LocalDate day = interval.getStart().toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+                mark(days.computeIfAbsent(day, d -> new BitSet(slotsPerDay)), day, interval);
+            }
+        }
+        byRoom.clear();
+        rooms.forEach((roomId, days) -> byRoom.put(roomId, new ConcurrentHashMap<>(days)));
+    }
+
+    private void refresh(StudyInterval interval) {
+        if (interval.getRoomId() == null) return;
+        LocalDate lastDay = lastDay(interval.getStart(), interval.getEnd());
+        for (LocalDate day = interval.getStart().toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            refresh(interval.getRoomId(), day);
+        }
+    }
+
+    private void refresh(Integer roomId, LocalDate day) {
+        BitSet bits = new BitSet(slotsPerDay);
+        LocalDateTime from = day.atStartOfDay();
+        for (StudyInterval interval : intervalIndex.findRoomIntervals(roomId, from, from.plusDays(1))) {
+            mark(bits, day, interval);
+        }
+        Map<LocalDate, BitSet> days = byRoom.computeIfAbsent(roomId, id -> new ConcurrentHashMap<>());
+        if (bits.isEmpty()) days.remove(day);
+        else days.put(day, bits);
+    }
+
+    private void mark(BitSet bits, LocalDate day, StudyInterval interval) {
+        int from = fromSlot(day, interval.getStart());
+        bits.set(from, toSlot(day, from, interval.getEnd()));
+    }
+
+    private int fromSlot(LocalDate day, LocalDateTime start) {
+        if (start.toLocalDate().isBefore(day)) return 0;
+        return minuteOfDay(start) / slotMinutes;
+    }
+
+    // at least one slot, so that a study without length still occupies its start slot
+    private int toSlot(LocalDate day, int fromSlot, LocalDateTime end) {
+        int to = end.toLocalDate().isAfter(day) ? slotsPerDay : (minuteOfDay(end) + slotMinutes - 1) / slotMinutes;
+        return Math.max(to, Math.min(fromSlot + 1, slotsPerDay));
+    }
+
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalDate lastDay(LocalDateTime start, LocalDateTime end) {
+        return end.isAfter(start) ? end.minusNanos(1).toLocalDate() : start.toLocalDate();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Immutable free time offered for a new study.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class Slot {
+
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    public Slot(LocalDateTime startTime, LocalDateTime endTime) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Slot slot = (Slot) o;
+        return startTime.equals(slot.startTime) && endTime.equals(slot.endTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(startTime, endTime);
+    }
+
+    @Override
+    public String toString() {
+        return "Slot{" +
+            "startTime=" + startTime +
+            ", endTime=" + endTime +
+            '}';
+    }
+}
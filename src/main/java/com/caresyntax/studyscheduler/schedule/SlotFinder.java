@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Finds the earliest times at which a patient, a doctor and a room are free together.
+ * <p>
+ * The busy intervals of the three resources are read from the interval index and merged
+ * in one pass in start order, so a search costs O(log n + k) where k is the number of
+ * studies of the three resources in the window. Offered start times are rounded up
+ * to the configured step.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class SlotFinder {
+
+    private final StudyIntervalIndex intervalIndex;
+    private final Duration step;
+
+    public SlotFinder(StudyIntervalIndex intervalIndex, @Value("${studyscheduler.study.slot-step}") Duration step) {
+        if (step.isNegative() || step.isZero()) throw new IllegalArgumentException("Slot step must be positive: " + step);
+        this.intervalIndex = intervalIndex;
+        this.step = step;
+    }
+
+    /**
+     * Slots inside one free gap follow each other, so they are alternatives for a single study.
+     *
+     * @param patientId patient id or null
+     * @param doctorId  doctor id or null
+     * @param roomId    room id or null
+     * @param studyId   id of the edited study whose own interval is free, or null
+     * @param duration  duration of the study
+     * @param from      window start, inclusive
+     * @param to        window end, inclusive for the end of a slot
+     * @param limit     maximum number of slots
+     * @return free slots inside the window in start order
+     */
+    public List<Slot> findFreeSlots(Integer patientId, Integer doctorId, Integer roomId, Integer studyId,
+                                    Duration duration, LocalDateTime from, LocalDateTime to, int limit) {
+        if (duration.isNegative() || duration.isZero())
+            throw new IllegalArgumentException("Duration must be positive: " + duration);
+        List<Slot> slots = new ArrayList<>(Math.max(0, Math.min(limit, 100)));
+        if (limit <= 0 || !from.isBefore(to)) return slots;
+
+        List<List<StudyInterval>> busy = new ArrayList<>(3);
+        busy.add(intervalIndex.findPatientIntervals(patientId, from, to));
+        busy.add(intervalIndex.findDoctorIntervals(doctorId, from, to));
+        busy.add(intervalIndex.findRoomIntervals(roomId, from, to));
+        int[] positions = new int[busy.size()];
+
+        LocalDateTime free = align(from);
+        while (slots.size() < limit) {
+            StudyInterval next = pollEarliest(busy, positions);
+            if (next != null && Objects.equals(next.getStudyId(), studyId)) continue;
+
+            LocalDateTime gapEnd = next == null || next.getStart().isAfter(to) ? to : next.getStart();
+            for (LocalDateTime start = free; slots.size() < limit && !start.plus(duration).isAfter(gapEnd);
+                 start = start.plus(duration)) {
+                slots.add(new Slot(start, start.plus(duration)));
+            }
+            if (next == null || !next.getStart().isBefore(to)) break;
+
+            // a study without length still blocks a slot starting at its start time
+            LocalDateTime busyUntil = align(next.isPoint() ? next.getStart().plusNanos(1) : next.getEnd());
+            if (busyUntil.isAfter(free)) free = busyUntil;
+        }
+        return slots;
+    }
+
+    private static StudyInterval pollEarliest(List<List<StudyInterval>> busy, int[] positions) {
+        int earliest = -1;
+        for (int i = 0; i < positions.length; i++) {
+            List<StudyInterval> intervals = busy.get(i);
+            if (positions[i] < intervals.size() && (earliest < 0 ||
+                intervals.get(positions[i]).getStart().isBefore(busy.get(earliest).get(positions[earliest]).getStart())))
+                earliest = i;
+        }
+        return earliest < 0 ? null : busy.get(earliest).get(positions[earliest]++);
+    }
+
+    private LocalDateTime align(LocalDateTime time) {
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        long nanos = Duration.between(day, time).toNanos();
+        long stepNanos = step.toNanos();
+        return day.plusNanos((nanos + stepNanos - 1) / stepNanos * stepNanos);
+    }
+}
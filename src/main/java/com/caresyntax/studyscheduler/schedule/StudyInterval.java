@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Study;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable time interval occupied by a study together with the resources it reserves.
+ * A study without end time occupies a single point in time until a default duration is applied.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyInterval {
+
+    private final Integer studyId;
+    private final Integer patientId;
+    private final Integer doctorId;
+    private final Integer roomId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public StudyInterval(Integer studyId, Integer patientId, Integer doctorId, Integer roomId,
+                         LocalDateTime start, LocalDateTime end) {
+        this.studyId = studyId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.roomId = roomId;
+        this.start = start;
+        this.end = end == null || end.isBefore(start) ? start : end;
+    }
+
+    public static StudyInterval of(Study study) {
+        return new StudyInterval(study.getId(), idOf(study.getPatient()), idOf(study.getDoctor()),
+            idOf(study.getRoom()), study.getStartTime(), study.getEndTime());
+    }
+
+    /**
+     * @param defaultDuration duration of a study without end time
+     * @return interval ending after the default duration if this interval has no length
+     */
+    public StudyInterval withDefaultDuration(Duration defaultDuration) {
+        if (!isPoint() || defaultDuration.isZero()) return this;
+        return new StudyInterval(studyId, patientId, doctorId, roomId, start, start.plus(defaultDuration));
+    }
+
+    private static Integer idOf(BaseEntity entity) {
+        return entity == null ? null : entity.getId();
+    }
+
+    public Integer getStudyId() {
+        return studyId;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public boolean isPoint() {
+        return start.equals(end);
+    }
+
+    /**
+     * Intervals are half-open, so back-to-back studies do not intersect.
+     * Studies starting at the same time always intersect.
+     *
+     * @param other interval to compare with
+     * @return true - if intervals intersect
+     */
+    public boolean intersects(StudyInterval other) {
+        return start.equals(other.start) || (start.isBefore(other.end) && other.start.isBefore(end));
+    }
+
+    @Override
+    public String toString() {
+        return "StudyInterval{" +
+            "studyId=" + studyId +
+            ", start=" + start +
+            ", end=" + end +
+            '}';
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory index of active study intervals per doctor, patient and room.
+ * <p>
+ * Kept up to date by the study repository on every save so that intersection
+ * checks do not need a database round trip.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class StudyIntervalIndex {
+
+    private final Map<Integer, StudyInterval> byStudy = new ConcurrentHashMap<>();
+    private final Map<Integer, IntervalSet> byPatient = new ConcurrentHashMap<>();
+    private final Map<Integer, IntervalSet> byDoctor = new ConcurrentHashMap<>();
+    private final Map<Integer, IntervalSet> byRoom = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener notified after every change of the index.
+     *
+     * @param listener listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Replaces the index content.
+     *
+     * @param intervals intervals of all active studies
+     */
+    public synchronized void reload(Collection<StudyInterval> intervals) {
+        byStudy.clear();
+        byPatient.clear();
+        byDoctor.clear();
+        byRoom.clear();
+        intervals.forEach(this::index);
+        listeners.forEach(Listener::indexReloaded);
+    }
+
+    public StudyInterval get(Integer studyId) {
+        return studyId == null ? null : byStudy.get(studyId);
+    }
+
+    /**
+     * Adds the interval, replacing the previous interval of the same study.
+     *
+     * @param interval interval of a stored study
+     */
+    public synchronized void put(StudyInterval interval) {
+        StudyInterval previous = unindex(interval.getStudyId());
+        index(interval);
+        listeners.forEach(listener -> listener.intervalChanged(previous, interval));
+    }
+
+    /**
+     * @param studyId study id
+     * @return the removed interval or null if the study was not indexed
+     */
+    public synchronized StudyInterval remove(Integer studyId) {
+        StudyInterval interval = unindex(studyId);
+        if (interval != null) listeners.forEach(listener -> listener.intervalChanged(interval, null));
+        return interval;
+    }
+
+    /**
+     * @return intervals of all indexed studies
+     */
+    public Collection<StudyInterval> getIntervals() {
+        return new ArrayList<>(byStudy.values());
+    }
+
+    /**
+     * @param roomId room id
+     * @param from   window start, inclusive
+     * @param to     window end, exclusive
+     * @return intervals of the room intersecting the window sorted by start time
+     */
+    public List<StudyInterval> findRoomIntervals(Integer roomId, LocalDateTime from, LocalDateTime to) {
+        return find(byRoom, roomId, from, to);
+    }
+
+    /**
+     * @param doctorId doctor id
+     * @param from     window start, inclusive
+     * @param to       window end, exclusive
+     * @return intervals of the doctor intersecting the window sorted by start time
+     */
+    public List<StudyInterval> findDoctorIntervals(Integer doctorId, LocalDateTime from, LocalDateTime to) {
+        return find(byDoctor, doctorId, from, to);
+    }
+
+    /**
+     * @param patientId patient id
+     * @param from      window start, inclusive
+     * @param to        window end, exclusive
+     * @return intervals of the patient intersecting the window sorted by start time
+     */
+    public List<StudyInterval> findPatientIntervals(Integer patientId, LocalDateTime from, LocalDateTime to) {
+        return find(byPatient, patientId, from, to);
+    }
+
+    /**
+     * @param candidate interval of a study to be stored
+     * @return true - if another study of the same patient, doctor or room intersects the candidate
+     */
+    public boolean isIntersecting(StudyInterval candidate) {
+        return intersects(byPatient, candidate.getPatientId(), candidate)
+            || intersects(byDoctor, candidate.getDoctorId(), candidate)
+            || intersects(byRoom, candidate.getRoomId(), candidate);
+    }
+
+    /**
+     * @param roomId    room id
+     * @param candidate interval of a study to be stored
+     * @return true - if another study in the room intersects the candidate
+     */
+    public boolean isRoomIntersecting(Integer roomId, StudyInterval candidate) {
+        return intersects(byRoom, roomId, candidate);
+    }
+
+    public int size() {
+        return byStudy.size();
+    }
+
+    private void index(StudyInterval interval) {
+        byStudy.put(interval.getStudyId(), interval);
+        add(byPatient, interval.getPatientId(), interval);
+        add(byDoctor, interval.getDoctorId(), interval);
+        add(byRoom, interval.getRoomId(), interval);
+    }
+
+    private StudyInterval unindex(Integer studyId) {
+        StudyInterval interval = get(studyId);
+        if (interval != null) {
+            byStudy.remove(studyId);
+            remove(byPatient, interval.getPatientId(), interval);
+            remove(byDoctor, interval.getDoctorId(), interval);
+            remove(byRoom, interval.getRoomId(), interval);
+        }
+        return interval;
+    }
+
+    private static void add(Map<Integer, IntervalSet> sets, Integer key, StudyInterval interval) {
+        if (key != null) sets.computeIfAbsent(key, k -> new IntervalSet()).add(interval);
+    }
+
+    private static void remove(Map<Integer, IntervalSet> sets, Integer key, StudyInterval interval) {
+        IntervalSet set = key == null ? null : sets.get(key);
+        if (set != null) {
+            set.remove(interval);
+            if (set.isEmpty()) sets.remove(key);
+        }
+    }
+
+    private static List<StudyInterval> find(Map<Integer, IntervalSet> sets, Integer key, LocalDateTime from, LocalDateTime to) {
+        IntervalSet set = key == null ? null : sets.get(key);
+        return set == null ? Collections.emptyList() : set.intersecting(from, to);
+    }
+
+    private static boolean intersects(Map<Integer, IntervalSet> sets, Integer key, StudyInterval candidate) {
+        IntervalSet set = key == null ? null : sets.get(key);
+        return set != null && set.intersects(candidate);
+    }
+
+    /**
+     * Receives index changes. Called while the index is locked, so implementations must be fast.
+     */
+    public interface Listener {
+
+        /**
+         * @param previous previous interval of the study or null if the study was added
+         * @param current  current interval of the study or null if the study was removed
+         */
+        void intervalChanged(StudyInterval previous, StudyInterval current);
+
+        void indexReloaded();
+    }
+}
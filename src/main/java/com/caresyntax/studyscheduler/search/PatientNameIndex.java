@@ -0,0 +1,316 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.search;
+
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Trigram index of patient names.
+ * <p>
+ * Names are compared case and accent insensitive. Substring queries intersect the posting
+ * lists of the query trigrams and verify the few remaining candidates, tolerant queries rank
+ * names by the share of query trigrams they contain. The index keeps a summary of every patient,
+ * so results can be sorted and paged without reading the patient table.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class PatientNameIndex {
+
+    private static final int GRAM = 3;
+    private static final double MIN_SIMILARITY = 0.5;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, PatientSummary> summaries = new HashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener notified after a patient has been added, changed or removed.
+     *
+     * @param listener listener
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Replaces the index content.
+     *
+     * @param patients summaries of all patients
+     */
+    public void reload(Collection<PatientSummary> patients) {
+        lock.writeLock().lock();
+        try {
+            summaries.clear();
+            names.clear();
+            postings.clear();
+            patients.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id patient id
+     * @return summary of the patient or null if the patient is not indexed
+     */
+    public PatientSummary get(Integer id) {
+        lock.readLock().lock();
+        try {
+            return summaries.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return summaries of all indexed patients
+     */
+    public List<PatientSummary> getSummaries() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(summaries.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the patient, replacing the previous summary of the same patient.
+     *
+     * @param patient patient summary
+     */
+    public void put(PatientSummary patient) {
+        lock.writeLock().lock();
+        try {
+            unindex(patient.getId());
+            index(patient);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    public void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Finds patients whose name contains the query. Without an explicit order exact matches come first,
+     * then names starting with the query, names with a word starting with it and other names.
+     *
+     * @param query  substring of the name, an empty query matches all patients
+     * @param order  order of the results or null to order by relevance
+     * @param offset number of skipped results
+     * @param limit  maximum number of ids
+     * @return ids of the requested matches and the total number of matches
+     */
+    public Hits search(String query, Comparator<PatientSummary> order, long offset, int limit) {
+        String normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            Collection<Integer> candidates = normalized.length() < GRAM ? names.keySet() :
+                intersect(trigrams(normalized, false));
+            List<Match> matches = new ArrayList<>();
+            for (Integer id : candidates) {
+                int rank = rank(names.get(id), normalized);
+                if (rank >= 0) matches.add(new Match(id, rank));
+            }
+            Comparator<Match> comparator = order == null ? Comparator.comparingDouble(match -> match.rank) :
+                Comparator.comparing(match -> summaries.get(match.id), order);
+            return new Hits(top(matches, comparator, offset, limit), matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds patients whose name is similar to the query, tolerating typos and missing letters.
+     *
+     * @param query name or a part of it
+     * @param limit maximum number of ids
+     * @return ids of similar patients, most similar first
+     */
+    public List<Integer> searchSimilar(String query, int limit) {
+        Set<String> queryTrigrams = trigrams(normalize(query), true);
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> common = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (Integer id : postings.getOrDefault(trigram, Collections.emptySet())) {
+                    common.merge(id, 1, Integer::sum);
+                }
+            }
+            List<Match> matches = new ArrayList<>();
+            common.forEach((id, count) -> {
+                double similarity = (double) count / queryTrigrams.size();
+                if (similarity >= MIN_SIMILARITY) matches.add(new Match(id, -similarity));
+            });
+            return top(matches, Comparator.comparingDouble(match -> match.rank), 0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String name) {
+        if (name == null) return "";
+        String plain = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(plain.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private void index(PatientSummary patient) {
+        String normalized = normalize(patient.getName());
+        summaries.put(patient.getId(), patient);
+        names.put(patient.getId(), normalized);
+        trigrams(normalized, true).forEach(trigram -> postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(patient.getId()));
+    }
+
+    private void unindex(Integer id) {
+        summaries.remove(id);
+        String name = names.remove(id);
+        if (name == null) return;
+        for (String trigram : trigrams(name, true)) {
+            Set<Integer> ids = postings.get(trigram);
+            ids.remove(id);
+            if (ids.isEmpty()) postings.remove(trigram);
+        }
+    }
+
+    private Collection<Integer> intersect(Set<String> trigrams) {
+        List<Set<Integer>> lists = new ArrayList<>();
+        for (String trigram : trigrams) {
+            Set<Integer> ids = postings.get(trigram);
+            if (ids == null) return Collections.emptySet();
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Integer> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Padding marks the start and the end of a name, so that prefixes weigh more in similarity.
+     */
+    private static Set<String> trigrams(String text, boolean padded) {
+        String value = padded ? "  " + text + " " : text;
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    private static int rank(String name, String query) {
+        if (name.equals(query)) return 0;
+        if (name.startsWith(query)) return 1;
+        if (name.contains(" " + query)) return 2;
+        if (name.contains(query)) return 3;
+        return -1;
+    }
+
+    /**
+     * Keeps only offset + limit best matches in a heap instead of sorting all of them.
+     */
+    private List<Integer> top(List<Match> matches, Comparator<Match> order, long offset, int limit) {
+        Comparator<Match> total = order.
+            thenComparing(match -> names.get(match.id)).
+            thenComparing(match -> match.id);
+        long size = Math.min(offset + limit, matches.size());
+        if (offset >= size) return Collections.emptyList();
+
+        PriorityQueue<Match> best = new PriorityQueue<>((int) size + 1, total.reversed());
+        for (Match match : matches) {
+            best.add(match);
+            if (best.size() > size) best.poll();
+        }
+        return best.stream().
+            sorted(total).
+            skip(offset).
+            map(match -> match.id).
+            collect(Collectors.toList());
+    }
+
+    /**
+     * Ids of a page of matches together with the number of all matches.
+     */
+    public static class Hits {
+        private final List<Integer> ids;
+        private final int total;
+
+        Hits(List<Integer> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Integer> getIds() {
+            return ids;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    private static class Match {
+        private final Integer id;
+        private final double rank;
+
+        private Match(Integer id, double rank) {
+            this.id = id;
+            this.rank = rank;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.search;
+
+import com.caresyntax.studyscheduler.model.Patient;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the patient properties kept in the search index.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class PatientSummary {
+
+    private final Integer id;
+    private final String name;
+    private final Patient.SEX sex;
+    private final LocalDate birthDate;
+
+    public PatientSummary(Integer id, String name, Patient.SEX sex, LocalDate birthDate) {
+        this.id = id;
+        this.name = name;
+        this.sex = sex;
+        this.birthDate = birthDate;
+    }
+
+    public static PatientSummary of(Patient patient) {
+        return new PatientSummary(patient.getId(), patient.getName(), patient.getSex(), patient.getBirthDate());
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Patient.SEX getSex() {
+        return sex;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    @Override
+    public String toString() {
+        return "PatientSummary{" +
+            "id=" + id +
+            ", name='" + name + '\'' +
+            '}';
+    }
+}
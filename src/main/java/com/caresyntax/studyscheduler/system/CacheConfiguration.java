@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Spring cache abstraction. The caches are Caffeine caches
+ * configured by the <code>spring.cache.*</code> properties, their hit and miss counts are published
+ * as the <code>cache.gets</code> metric under <code>/manage/metrics</code>.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    /**
+     * All rooms, evicted whenever a room changes.
+     */
+    public static final String ROOMS = "rooms";
+
+    /**
+     * All doctors, evicted whenever a doctor changes.
+     */
+    public static final String DOCTORS = "doctors";
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import com.caresyntax.studyscheduler.search.PatientNameIndex;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary snapshot of the patient name index and the interval index of the active studies.
+ * <p>
+ * The snapshot is written when the application shuts down and read back in bulk at the next start
+ * instead of querying all patients and active studies. It is deleted once read and as soon as an index
+ * changes after it has been written, so a crash or a late save never leaves an outdated snapshot behind.
+ * The row counts, highest ids and a checksum of the rows of the patient and study tables are stored with it
+ * as well and a snapshot of another database state is ignored, also after updates of rows made offline.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class IndexSnapshot implements StudyIntervalIndex.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexSnapshot.class);
+
+    private static final int MAGIC = 0x53534958;
+    private static final int FORMAT = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    private final Path file;
+    private final JdbcTemplate jdbcTemplate;
+    private final StudyIntervalIndex intervalIndex;
+    private final PatientNameIndex patientNameIndex;
+    private final Duration defaultDuration;
+    private Boolean restored;
+    private volatile boolean written;
+
+    public IndexSnapshot(@Value("${studyscheduler.snapshot.file:}") String file, JdbcTemplate jdbcTemplate,
+                         StudyIntervalIndex intervalIndex, PatientNameIndex patientNameIndex,
+                         @Value("${studyscheduler.study.default-duration}") Duration defaultDuration) {
+        this.file = StringUtils.hasText(file) ? Paths.get(file) : null;
+        this.jdbcTemplate = jdbcTemplate;
+        this.intervalIndex = intervalIndex;
+        this.patientNameIndex = patientNameIndex;
+        this.defaultDuration = defaultDuration;
+        intervalIndex.addListener(this);
+        patientNameIndex.addListener(this::invalidate);
+    }
+
+    /**
+     * Loads both indexes from the snapshot, only the first call reads it.
+     *
+     * @return true - if the indexes have been restored and must not be loaded from the database
+     */
+    public synchronized boolean restore() {
+        if (restored != null) return restored;
+        restored = false;
+        if (file == null || !Files.exists(file)) return false;
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                logger.warn("Ignoring snapshot {} of another format", file);
+            } else if (in.readLong() != defaultDuration.getSeconds() ||
+                !Arrays.equals(readLongs(in, 6), fingerprint())) {
+                logger.warn("Ignoring snapshot {} of another database state", file);
+            } else {
+                List<PatientSummary> patients = readPatients(in);
+                List<StudyInterval> intervals = readIntervals(in);
+                patientNameIndex.reload(patients);
+                intervalIndex.reload(intervals);
+                restored = true;
+                logger.info("Restored {} patients and {} active studies from {} in {} ms", patients.size(),
+                    intervals.size(), file, Duration.ofNanos(System.nanoTime() - start).toMillis());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable snapshot {}: {}", file, e.toString());
+        }
+        delete();
+        return restored;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first, so that an interrupted write leaves no snapshot.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void save() {
+        if (file == null) return;
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            List<PatientSummary> patients = patientNameIndex.getSummaries();
+            Collection<StudyInterval> intervals = intervalIndex.getIntervals();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(defaultDuration.getSeconds());
+                for (long value : fingerprint()) out.writeLong(value);
+                writePatients(out, patients);
+                writeIntervals(out, intervals);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written = true;
+            logger.info("Saved {} patients and {} active studies to {}", patients.size(), intervals.size(), file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not save snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    @Override
+    public void intervalChanged(StudyInterval previous, StudyInterval current) {
+        invalidate();
+    }
+
+    @Override
+    public void indexReloaded() {
+        invalidate();
+    }
+
+    private void invalidate() {
+        if (written) {
+            written = false;
+            delete();
+        }
+    }
+
+    private void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    /**
+     * Sums the hashes of all columns the indexes are built from, so that the sums change with any row,
+     * whatever the order of the rows. Cheaper than loading the indexes, because no row leaves the database.
+     */
+    private long[] fingerprint() {
+        return jdbcTemplate.queryForObject("select (select count(*) from patient), (select coalesce(max(id), 0) from patient), " +
+                "(select count(*) from study), (select coalesce(max(id), 0) from study), " +
+                "(select coalesce(sum(cast(ora_hash(concat(id, '|', name, '|', sex, '|', birth_date)) as bigint)), 0) from patient), " +
+                "(select coalesce(sum(cast(ora_hash(concat(id, '|', patient_id, '|', doctor_id, '|', room_id, '|', status, '|', " +
+                "start_time, '|', end_time, '|', version)) as bigint)), 0) from study)",
+            (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6)});
+    }
+
+    private static void writePatients(DataOutputStream out, List<PatientSummary> patients) throws IOException {
+        out.writeInt(patients.size());
+        for (PatientSummary patient : patients) {
+            out.writeInt(patient.getId());
+            out.writeBoolean(patient.getName() != null);
+            if (patient.getName() != null) out.writeUTF(patient.getName());
+            out.writeByte(patient.getSex() == null ? -1 : patient.getSex().ordinal());
+            out.writeLong(patient.getBirthDate() == null ? NULL_LONG : patient.getBirthDate().toEpochDay());
+        }
+    }
+
+    private static List<PatientSummary> readPatients(DataInputStream in) throws IOException {
+        Patient.SEX[] sexes = Patient.SEX.values();
+        int size = in.readInt();
+        List<PatientSummary> patients = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int id = in.readInt();
+            String name = in.readBoolean() ? in.readUTF() : null;
+            byte sex = in.readByte();
+            long birthDate = in.readLong();
+            patients.add(new PatientSummary(id, name, sex < 0 ? null : sexes[sex],
+                birthDate == NULL_LONG ? null : LocalDate.ofEpochDay(birthDate)));
+        }
+        return patients;
+    }
+
+    private static void writeIntervals(DataOutputStream out, Collection<StudyInterval> intervals) throws IOException {
+        out.writeInt(intervals.size());
+        for (StudyInterval interval : intervals) {
+            writeInt(out, interval.getStudyId());
+            writeInt(out, interval.getPatientId());
+            writeInt(out, interval.getDoctorId());
+            writeInt(out, interval.getRoomId());
+            writeTime(out, interval.getStart());
+            writeTime(out, interval.getEnd());
+        }
+    }
+
+    private static List<StudyInterval> readIntervals(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<StudyInterval> intervals = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            intervals.add(new StudyInterval(readInt(in), readInt(in), readInt(in), readInt(in), readTime(in), readTime(in)));
+        }
+        return intervals;
+    }
+
+    private static long[] readLongs(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) values[i] = in.readLong();
+        return values;
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeInt(value == null ? NULL_INT : value);
+    }
+
+    private static Integer readInt(DataInputStream in) throws IOException {
+        int value = in.readInt();
+        return value == NULL_INT ? null : value;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time == null ? NULL_LONG : time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == NULL_LONG ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.type.MethodMetadata;
+
+/**
+ * Makes the application beans lazy, so they are created on first use instead of at startup.
+ * <p>
+ * Infrastructure beans and beans annotated with {@link Lazy}, whatever its value, keep their setting:
+ * <code>@Lazy(false)</code> marks a bean that has to exist from startup, e.g. to be in step
+ * with the in-memory indexes loaded when the context is refreshed.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class LazyInitializationPostProcessor implements BeanFactoryPostProcessor {
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE && !isAnnotatedLazy(definition))
+                definition.setLazyInit(true);
+        }
+    }
+
+    private static boolean isAnnotatedLazy(BeanDefinition definition) {
+        if (!(definition instanceof AnnotatedBeanDefinition)) return false;
+        AnnotatedBeanDefinition annotated = (AnnotatedBeanDefinition) definition;
+        MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+        return factoryMethod != null ? factoryMethod.isAnnotated(Lazy.class.getName()) :
+            annotated.getMetadata().hasAnnotation(Lazy.class.getName());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Names of the scheduling meters. Meters are registered in the global registry, to which Spring Boot
+ * adds its registries, so that repositories and services record them without depending on a registry bean.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public final class SchedulingMetrics {
+
+    /**
+     * Timer of the intersection check, tagged by outcome conflict or free.
+     */
+    public static final String CONFLICT_CHECK = "studyscheduler.study.conflict.check";
+
+    /**
+     * Counter of studies rejected because of an intersection, tagged by source form, import or optimizer.
+     */
+    public static final String CONFLICT_REJECTIONS = "studyscheduler.study.conflict.rejections";
+
+    /**
+     * Timer of the patient search by name, tagged by outcome found or empty.
+     */
+    public static final String PATIENT_SEARCH = "studyscheduler.patient.search";
+
+    /**
+     * Distribution of SQL statements executed per request, tagged by uri, method and outcome like http.server.requests.
+     */
+    public static final String HTTP_STATEMENTS = "studyscheduler.http.statements";
+
+    /**
+     * Timer of the SQL statement execution time per request, tagged like {@link #HTTP_STATEMENTS}.
+     */
+    public static final String HTTP_STATEMENTS_TIME = "studyscheduler.http.statements.time";
+
+    /**
+     * Counter of reservations that found a lock held by another one, tagged by resource patient, doctor or room.
+     */
+    public static final String RESERVATION_CONTENDED = "studyscheduler.reservation.contended";
+
+    /**
+     * Timer of the wait for a contended reservation lock, tagged like {@link #RESERVATION_CONTENDED}.
+     */
+    public static final String RESERVATION_WAIT = "studyscheduler.reservation.wait";
+
+    /**
+     * Gauge of the connected schedule boards.
+     */
+    public static final String BOARD_SUBSCRIBERS = "studyscheduler.board.subscribers";
+
+    /**
+     * Counter of board buffers dropped because the board did not keep up.
+     */
+    public static final String BOARD_DROPPED = "studyscheduler.board.dropped";
+
+    /**
+     * Timer of the archiver runs.
+     */
+    public static final String ARCHIVE_RUN = "studyscheduler.archive.run";
+
+    /**
+     * Counter of finished studies moved to the archive.
+     */
+    public static final String ARCHIVED_STUDIES = "studyscheduler.archive.studies";
+
+    private SchedulingMetrics() {
+    }
+
+    /**
+     * @param source form, import or optimizer
+     */
+    public static void conflictRejected(String source) {
+        Metrics.counter(CONFLICT_REJECTIONS, "source", source).increment();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the SQL statements of every request, including those of the rendered view, next to the
+ * request timings of http.server.requests. The count is also stored in the {@link #STATEMENTS}
+ * request attribute, and requests above the budget are logged as warnings.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StatementCountInterceptor extends HandlerInterceptorAdapter {
+
+    /**
+     * Request attribute with the number of statements executed by the request.
+     */
+    public static final String STATEMENTS = StatementCountInterceptor.class.getName() + ".statements";
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementCountInterceptor.class);
+
+    private final int budget;
+
+    public StatementCountInterceptor(int budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int count = StatementCounter.getCount();
+        long nanos = StatementCounter.getNanos();
+        request.setAttribute(STATEMENTS, count);
+
+        Tags tags = Tags.of(WebMvcTags.uri(request, response), WebMvcTags.method(request), WebMvcTags.outcome(response));
+        Metrics.summary(SchedulingMetrics.HTTP_STATEMENTS, tags).record(count);
+        Metrics.timer(SchedulingMetrics.HTTP_STATEMENTS_TIME, tags).record(nanos, TimeUnit.NANOSECONDS);
+
+        if (count > budget) {
+            logger.warn("{} {} executed {} SQL statements in {} ms, the budget is {}", request.getMethod(),
+                request.getRequestURI(), count, TimeUnit.NANOSECONDS.toMillis(nanos), budget);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} {} executed {} SQL statements in {} ms", request.getMethod(), request.getRequestURI(),
+                count, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Counts and times the SQL statements and batches executed by Hibernate in the current thread.
+ * A listener is attached to every session by the hibernate.session.events.auto property.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StatementCounter extends BaseSessionEventListener {
+
+    private static final ThreadLocal<long[]> CURRENT = ThreadLocal.withInitial(() -> new long[2]);
+
+    private long start;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(System.nanoTime() - start);
+    }
+
+    private static void record(long nanos) {
+        long[] current = CURRENT.get();
+        current[0]++;
+        current[1] += nanos;
+    }
+
+    /**
+     * @return statements executed in the current thread since the last reset
+     */
+    public static int getCount() {
+        return (int) CURRENT.get()[0];
+    }
+
+    /**
+     * @return execution time of the statements in the current thread since the last reset
+     */
+    public static long getNanos() {
+        return CURRENT.get()[1];
+    }
+
+    public static void reset() {
+        long[] current = CURRENT.get();
+        current[0] = 0;
+        current[1] = 0;
+    }
+}
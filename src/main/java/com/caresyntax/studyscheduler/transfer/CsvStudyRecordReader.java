@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads studies from comma separated values. The first line names the columns, see {@link StudyRecord#COLUMNS},
+ * in any order. Values may be enclosed in double quotes, a quote inside a quoted value is doubled. A quoted value
+ * may span several lines, the record then carries the number of its first line.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class CsvStudyRecordReader implements StudyRecordReader {
+
+    private final BufferedReader reader;
+    private List<String> header;
+    private long line;
+
+    public CsvStudyRecordReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    @Override
+    public StudyRecord read() throws IOException {
+        if (header == null) readHeader();
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) return null;
+        } while (text.trim().isEmpty());
+
+        long first = line;
+        List<String> values = split(text);
+        if (values.size() > header.size()) {
+            throw new IOException("Line " + first + " has " + values.size() + " values, expected " + header.size());
+        }
+        StudyRecord record = new StudyRecord();
+        record.setLine(first);
+        for (int i = 0; i < values.size(); i++) {
+            record.set(header.get(i), values.get(i).isEmpty() ? null : values.get(i));
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        String text = reader.readLine();
+        line++;
+        if (text == null) throw new IOException("The header line is missing");
+        header = split(text.startsWith("\uFEFF") ? text.substring(1) : text);
+        List<String> columns = Arrays.asList(StudyRecord.COLUMNS);
+        List<String> ignored = Arrays.asList(StudyRecord.IGNORED_COLUMNS);
+        for (String column : header) {
+            if (!columns.contains(column) && !ignored.contains(column)) throw new IOException("Unknown column " + column + ", expected " + columns);
+        }
+    }
+
+    /**
+     * Splits a line into values, reading further lines while a quoted value is open.
+     */
+    private List<String> split(String text) throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        long first = line;
+        for (int i = 0; i < text.length() || quoted; i++) {
+            if (i == text.length()) {
+                text = reader.readLine();
+                line++;
+                if (text == null) throw new IOException("Line " + first + " has an unterminated quote");
+                value.append('\n');
+                i = -1;
+                continue;
+            }
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') value.append(c);
+                else if (i + 1 < text.length() && text.charAt(i + 1) == '"') value.append(text.charAt(++i));
+                else quoted = false;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+}
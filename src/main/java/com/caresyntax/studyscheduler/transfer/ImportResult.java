@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an import: the number of stored studies and the rejected rows.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class ImportResult {
+
+    /**
+     * Bounds the memory of an import with many invalid rows, further errors are only counted.
+     */
+    static final int MAX_ERRORS = 1000;
+
+    private int imported;
+    private int rejected;
+    private String failure;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * @return number of stored studies
+     */
+    public int getImported() {
+        return imported;
+    }
+
+    /**
+     * @return number of rows that were not stored
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return errors of the first {@value #MAX_ERRORS} rejected rows
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return why the import stopped before the end of the input, null if the whole input was read
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    void addImported(int count) {
+        imported += count;
+    }
+
+    void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) errors.add(new RowError(line, message));
+    }
+
+    void fail(String message) {
+        failure = message;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+            "imported=" + imported +
+            ", rejected=" + rejected +
+            ", failure='" + failure + '\'' +
+            '}';
+    }
+
+    /**
+     * Reason why a row was not stored.
+     */
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+}
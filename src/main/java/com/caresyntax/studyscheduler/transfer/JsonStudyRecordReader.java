@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads studies from a JSON array of objects or from newline delimited JSON objects.
+ * Values may be strings or numbers, the property names are the {@link StudyRecord#COLUMNS}.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class JsonStudyRecordReader implements StudyRecordReader {
+
+    private final MappingIterator<StudyRecord> records;
+
+    public JsonStudyRecordReader(InputStream input, ObjectMapper objectMapper) throws IOException {
+        this.records = objectMapper.readerFor(StudyRecord.class).readValues(input);
+    }
+
+    @Override
+    public StudyRecord read() throws IOException {
+        if (!records.hasNextValue()) return null;
+        long line = records.getParser().getCurrentLocation().getLineNr();
+        StudyRecord record = records.nextValue();
+        record.setLine(line);
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Writes rows of named values in an {@link ExportFormat}. Rows are written through a buffer
+ * and never collected, so the memory use does not depend on the number of rows.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+abstract class RowWriter implements AutoCloseable {
+
+    static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    protected final String[] columns;
+
+    private RowWriter(String[] columns) {
+        this.columns = columns;
+    }
+
+    static RowWriter of(ExportFormat format, String[] columns, OutputStream output, JsonFactory jsonFactory) throws IOException {
+        switch (format) {
+            case csv:
+                return new Csv(columns, output);
+            case ndjson:
+                return new NdJson(columns, output, jsonFactory);
+            default:
+                throw new IllegalArgumentException("Unsupported format " + format);
+        }
+    }
+
+    /**
+     * @param values values in the order of the columns
+     */
+    abstract void write(Object... values) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    static String text(Object value) {
+        if (value == null) return "";
+        if (value instanceof LocalDateTime) return TIME_FORMATTER.format((TemporalAccessor) value);
+        if (value instanceof Enum) return ((Enum<?>) value).name();
+        return value.toString();
+    }
+
+    private static class Csv extends RowWriter {
+        private final Writer writer;
+
+        private Csv(String[] columns, OutputStream output) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            write((Object[]) columns);
+        }
+
+        @Override
+        void write(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                String text = text(values[i]);
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(text.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(text);
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static class NdJson extends RowWriter {
+        private final JsonGenerator generator;
+
+        private NdJson(String[] columns, OutputStream output, JsonFactory jsonFactory) throws IOException {
+            super(columns);
+            this.generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void write(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value instanceof Number) generator.writeNumberField(columns[i], ((Number) value).longValue());
+                else if (value == null) generator.writeNullField(columns[i]);
+                else generator.writeStringField(columns[i], text(value));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports studies and patients.
+ * <p>
+ * Rows are read from a forward-only cursor and written one by one, so an export of the whole table
+ * needs as much memory as an export of a single day. The study columns are the columns of
+ * the import followed by the names of the patient, doctor and room, so an exported file can be imported again.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class StudyExporter {
+
+    static final String[] STUDY_COLUMNS = {"id", "patientId", "doctorId", "roomId", "startTime", "endTime", "status",
+        "description", "patientName", "doctorName", "roomName"};
+    static final String[] PATIENT_COLUMNS = {"id", "name", "sex", "birthDate"};
+
+    private final StudyRepository studyRepository;
+    private final PatientRepository patientRepository;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public StudyExporter(StudyRepository studyRepository, PatientRepository patientRepository) {
+        this.studyRepository = studyRepository;
+        this.patientRepository = patientRepository;
+    }
+
+    /**
+     * @param filter criteria
+     * @param format file format
+     * @param output target, not closed
+     * @return number of exported studies
+     */
+    @Transactional(readOnly = true)
+    public long exportStudies(StudyFilter filter, ExportFormat format, OutputStream output) throws IOException {
+        long count = 0;
+        try (Stream<StudyRow> studies = studyRepository.streamStudies(filter);
+             RowWriter writer = RowWriter.of(format, STUDY_COLUMNS, output, jsonFactory)) {
+            for (Iterator<StudyRow> iterator = studies.iterator(); iterator.hasNext(); count++) {
+                StudyRow study = iterator.next();
+                writer.write(study.getId(), study.getPatientId(), study.getDoctorId(), study.getRoomId(),
+                    study.getStartTime(), study.getEndTime(), study.getStatus(), study.getDescription(),
+                    study.getPatientName(), study.getDoctorName(), study.getRoomName());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param format file format
+     * @param output target, not closed
+     * @return number of exported patients
+     */
+    @Transactional(readOnly = true)
+    public long exportPatients(ExportFormat format, OutputStream output) throws IOException {
+        long count = 0;
+        try (Stream<PatientSummary> patients = patientRepository.streamSummaries();
+             RowWriter writer = RowWriter.of(format, PATIENT_COLUMNS, output, jsonFactory)) {
+            for (Iterator<PatientSummary> iterator = patients.iterator(); iterator.hasNext(); count++) {
+                PatientSummary patient = iterator.next();
+                writer.write(patient.getId(), patient.getName(), patient.getSex(), patient.getBirthDate());
+            }
+        }
+        return count;
+    }
+}
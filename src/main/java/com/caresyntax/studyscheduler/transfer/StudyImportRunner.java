@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Imports the schedules given on the command line:
+ * <pre>
+ * java -jar study-scheduler.jar --import=week.csv --import=extra.json --spring.main.web-application-type=none
+ * </pre>
+ * Files ending with <code>.csv</code> are read as comma separated values, other files as JSON.
+ * Without <code>web-application-type=none</code> the application keeps running after the import.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Component
+public class StudyImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudyImportRunner.class);
+    static final String OPTION = "import";
+
+    private final StudyImporter studyImporter;
+    private final ObjectMapper objectMapper;
+
+    public StudyImportRunner(StudyImporter studyImporter, ObjectMapper objectMapper) {
+        this.studyImporter = studyImporter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> files = args.getOptionValues(OPTION);
+        if (files == null) return;
+        for (String file : files) {
+            Path path = Paths.get(file);
+            ImportResult result;
+            try (StudyRecordReader reader = open(path)) {
+                result = studyImporter.importStudies(reader);
+            }
+            logger.info("Imported {} studies from {}, rejected {} rows", result.getImported(), path, result.getRejected());
+            result.getErrors().forEach(error -> logger.warn("{} {}", path, error));
+            if (result.getFailure() != null) logger.error("Import of {} stopped: {}", path, result.getFailure());
+        }
+    }
+
+    private StudyRecordReader open(Path path) throws IOException {
+        if (path.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            return new CsvStudyRecordReader(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+        }
+        InputStream input = Files.newInputStream(path);
+        try {
+            return new JsonStudyRecordReader(input, objectMapper);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+}
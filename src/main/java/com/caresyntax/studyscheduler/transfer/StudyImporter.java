@@ -0,0 +1,256 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Room;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports schedules of many studies.
+ * <p>
+ * Records are read in chunks of {@value #CHUNK_SIZE}, each chunk is stored in one transaction with batched inserts.
+ * All rows of a chunk are validated and checked for conflicts before the first insert, against the stored studies
+ * and against the rows accepted so far by the same import, so the checks never flush pending inserts.
+ * Invalid and conflicting rows are skipped and reported, the other rows are stored.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Service
+public class StudyImporter {
+
+    static final int CHUNK_SIZE = 500;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd[ ]['T']HH:mm[:ss]");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StudyRepository studyRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+
+    public StudyImporter(StudyRepository studyRepository, PatientRepository patientRepository,
+                         DoctorRepository doctorRepository, RoomRepository roomRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${studyscheduler.study.default-duration}") Duration defaultDuration,
+                         @Value("${studyscheduler.study.max-duration}") Duration maxDuration) {
+        this.studyRepository = studyRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.validator = Validation.buildDefaultValidatorFactory().getValidator();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Imports all records of the reader. Malformed input stops the import, the records read before are stored.
+     *
+     * @param reader records to import
+     * @return number of stored studies, the rejected rows and the reason of a stopped import
+     */
+    public ImportResult importStudies(StudyRecordReader reader) {
+        ImportResult result = new ImportResult();
+        // intervals of the accepted rows, keyed by the negated line number
+        StudyIntervalIndex accepted = new StudyIntervalIndex();
+        List<StudyRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        try {
+            for (StudyRecord record = reader.read(); record != null; record = reader.read()) {
+                chunk.add(record);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, accepted, result);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            result.fail(e.getMessage());
+        }
+        importChunk(chunk, accepted, result);
+        return result;
+    }
+
+    private void importChunk(List<StudyRecord> records, StudyIntervalIndex accepted, ImportResult result) {
+        if (records.isEmpty()) return;
+        List<StudyRecord> stored = new ArrayList<>();
+        try {
+            transactionTemplate.execute(status -> {
+                Map<Integer, Doctor> doctors = byId(doctorRepository.findAll());
+                Map<Integer, Room> rooms = byId(roomRepository.findAll());
+                Map<Integer, Patient> patients = byId(patientRepository.findAllById(records.stream().
+                    map(record -> parseId(record.getPatientId())).
+                    filter(Objects::nonNull).
+                    collect(Collectors.toSet())));
+
+                Map<StudyRecord, Study> parsed = new HashMap<>();
+                Map<StudyRecord, String> invalid = new HashMap<>();
+                for (StudyRecord record : records) {
+                    try {
+                        parsed.put(record, toStudy(record, patients, doctors, rooms));
+                    } catch (IllegalArgumentException e) {
+                        invalid.put(record, e.getMessage());
+                    }
+                }
+                // concurrent bookings of the same resources wait until the chunk is stored
+                studyRepository.lockResources(parsed.values());
+
+                List<Study> studies = new ArrayList<>();
+                for (StudyRecord record : records) {
+                    Study study = parsed.get(record);
+                    if (study == null) {
+                        result.reject(record.getLine(), invalid.get(record));
+                        continue;
+                    }
+                    try {
+                        check(record, study, accepted);
+                        studies.add(study);
+                        stored.add(record);
+                    } catch (IllegalArgumentException e) {
+                        result.reject(record.getLine(), e.getMessage());
+                    }
+                }
+                studies.forEach(studyRepository::save);
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+            result.addImported(stored.size());
+        } catch (RuntimeException e) {
+            String message = "not stored: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (StudyRecord record : stored) {
+                accepted.remove(key(record));
+                result.reject(record.getLine(), message);
+            }
+        }
+    }
+
+    private Study toStudy(StudyRecord record, Map<Integer, Patient> patients, Map<Integer, Doctor> doctors,
+                          Map<Integer, Room> rooms) {
+        Study study = new Study();
+        study.setPatient(find(patients, record.getPatientId(), "patient"));
+        study.setDoctor(find(doctors, record.getDoctorId(), "doctor"));
+        study.setRoom(find(rooms, record.getRoomId(), "room"));
+        study.setStartTime(parseTime(record.getStartTime(), "startTime"));
+        study.setEndTime(parseTime(record.getEndTime(), "endTime"));
+        study.setDescription(record.getDescription());
+        try {
+            study.setStatus(record.getStatus() == null ? Study.STATUS.planned : Study.STATUS.valueOf(record.getStatus()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("status: unknown status " + record.getStatus());
+        }
+        return study;
+    }
+
+    /**
+     * Applies the rules of the study form: bean validation, end after start, the maximum duration
+     * and no overlap with another study of the same patient, doctor or room.
+     */
+    private void check(StudyRecord record, Study study, StudyIntervalIndex accepted) {
+        Set<ConstraintViolation<Study>> violations = validator.validate(study);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Study> violation = violations.iterator().next();
+            throw new IllegalArgumentException(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (study.getEndTime() != null) {
+            if (!study.getEndTime().isAfter(study.getStartTime())) {
+                throw new IllegalArgumentException("endTime: must be after start time");
+            }
+            if (Duration.between(study.getStartTime(), study.getEndTime()).compareTo(maxDuration) > 0) {
+                throw new IllegalArgumentException("endTime: a study may not last longer than " + maxDuration.toHours() + " hours");
+            }
+        }
+
+        StudyInterval interval = new StudyInterval(key(record), study.getPatient().getId(),
+            study.getDoctor().getId(), study.getRoom().getId(), study.getStartTime(), study.getEndTime()).
+            withDefaultDuration(defaultDuration);
+        if (accepted.isIntersecting(interval) || studyRepository.isExistStoredIntersectingStudies(study)) {
+            SchedulingMetrics.conflictRejected("import");
+            throw new IllegalArgumentException("startTime: another study of this patient, doctor or room overlaps this time");
+        }
+        if (study.getStatus() != Study.STATUS.finished) accepted.put(interval);
+    }
+
+    private static Integer key(StudyRecord record) {
+        return (int) -record.getLine();
+    }
+
+    private static <T extends BaseEntity> Map<Integer, T> byId(Collection<T> entities) {
+        return entities.stream().collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
+    }
+
+    private static <T> T find(Map<Integer, T> entities, String id, String property) {
+        if (id == null) throw new IllegalArgumentException(property + "Id: must not be empty");
+        T entity = entities.get(parseId(id));
+        if (entity == null) throw new IllegalArgumentException(property + "Id: unknown " + property + " " + id);
+        return entity;
+    }
+
+    private static Integer parseId(String id) {
+        try {
+            return id == null ? null : Integer.valueOf(id.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime parseTime(String time, String property) {
+        if (time == null) return null;
+        try {
+            return LocalDateTime.parse(time.trim(), TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(property + ": invalid time " + time + ", expected yyyy-MM-dd HH:mm");
+        }
+    }
+}
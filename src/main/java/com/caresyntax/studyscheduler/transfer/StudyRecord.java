@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One study of an imported schedule as read from the file. The values are kept as text,
+ * so that the importer can report invalid values per row. The informational columns of an export
+ * are accepted and ignored, so that exported files can be imported again.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@JsonIgnoreProperties({"id", "patientName", "doctorName", "roomName"})
+public class StudyRecord {
+
+    public static final String[] COLUMNS = {"patientId", "doctorId", "roomId", "startTime", "endTime", "status", "description"};
+    static final String[] IGNORED_COLUMNS = {"id", "patientName", "doctorName", "roomName"};
+
+    private long line;
+    private String patientId;
+    private String doctorId;
+    private String roomId;
+    private String startTime;
+    private String endTime;
+    private String status;
+    private String description;
+
+    /**
+     * @return line of the record in the imported file, starting at 1
+     */
+    @JsonIgnore
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(String doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * @return start time formatted as <code>yyyy-MM-dd HH:mm</code>
+     */
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * @return end time formatted as <code>yyyy-MM-dd HH:mm</code>, optional
+     */
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return name of the {@link com.caresyntax.studyscheduler.model.Study.STATUS}, planned if empty
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    void set(String column, String value) {
+        switch (column) {
+            case "patientId":
+                patientId = value;
+                break;
+            case "doctorId":
+                doctorId = value;
+                break;
+            case "roomId":
+                roomId = value;
+                break;
+            case "startTime":
+                startTime = value;
+                break;
+            case "endTime":
+                endTime = value;
+                break;
+            case "status":
+                status = value;
+                break;
+            case "description":
+                description = value;
+                break;
+            case "id":
+            case "patientName":
+            case "doctorName":
+            case "roomName":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the studies of an imported schedule one by one, so that files of any size
+ * are imported with constant memory.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public interface StudyRecordReader extends Closeable {
+
+    /**
+     * @return next record or null at the end of the input
+     * @throws IOException if the input can not be read or is malformed
+     */
+    StudyRecord read() throws IOException;
+}
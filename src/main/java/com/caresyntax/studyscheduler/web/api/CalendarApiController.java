@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.schedule.DaySummary;
+import com.caresyntax.studyscheduler.schedule.OccupancySummary;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Calendar API, answered from the occupancy summary without a database query.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RestController
+@RequestMapping(ApiConfiguration.API + "/calendar")
+class CalendarApiController {
+
+    private static final int MAX_DAYS = 366;
+
+    private final OccupancySummary occupancySummary;
+
+    public CalendarApiController(OccupancySummary occupancySummary) {
+        this.occupancySummary = occupancySummary;
+    }
+
+    @GetMapping("/{resource}/{id}")
+    public List<DaySummary> getDays(@PathVariable OccupancySummary.Resource resource, @PathVariable int id,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(defaultValue = "7") int days) {
+        return this.occupancySummary.getDays(resource, id, from, Math.max(1, Math.min(days, MAX_DAYS)));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes only the fields listed in the <code>fields</code> request parameter, e.g. <code>fields=id,name</code>,
+ * of the DTOs returned by the API controllers. All fields are written without the parameter.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RestControllerAdvice(basePackageClasses = FieldSelectionAdvice.class)
+class FieldSelectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    static final String FILTER = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue container, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        String fields = request instanceof ServletServerHttpRequest ?
+            ((ServletServerHttpRequest) request).getServletRequest().getParameter(FILTER) : null;
+        SimpleBeanPropertyFilter filter = SimpleBeanPropertyFilter.serializeAll();
+        if (StringUtils.hasText(fields)) {
+            Set<String> names = StringUtils.commaDelimitedListToSet(fields).stream().
+                map(String::trim).
+                collect(Collectors.toSet());
+            filter = SimpleBeanPropertyFilter.filterOutAllExcept(names);
+        }
+        container.setFilters(new SimpleFilterProvider().addFilter(FILTER, filter));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.stream.Collectors;
+
+/**
+ * Patient API, answered from the patient name index.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RestController
+@RequestMapping(ApiConfiguration.API + "/patients")
+class PatientApiController {
+
+    private final PatientRepository patientRepository;
+
+    public PatientApiController(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    /**
+     * @param name     part of the name, all patients if empty
+     * @param pageable page, sortable by name, sex and birthDate
+     */
+    @GetMapping
+    public ResultPage<PatientDto> getPatients(@RequestParam(defaultValue = "") String name,
+                                              @PageableDefault(size = 20) Pageable pageable) {
+        Page<PatientSummary> page = this.patientRepository.findSummariesByName(name, pageable);
+        String next = !page.hasNext() ? null : ServletUriComponentsBuilder.fromCurrentRequest().
+            replaceQueryParam("page", page.getNumber() + 1).
+            toUriString();
+        return new ResultPage<>(page.getContent().stream().map(PatientDto::new).collect(Collectors.toList()),
+            page.getTotalElements(), next);
+    }
+
+    @GetMapping("/{patientId}")
+    public ResponseEntity<PatientDto> getPatient(@PathVariable int patientId) {
+        return ResponseEntity.of(this.patientRepository.findSummaryById(patientId).map(PatientDto::new));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public void handleUnsupportedSort() {
+        // the requested sort property is not supported
+    }
+}
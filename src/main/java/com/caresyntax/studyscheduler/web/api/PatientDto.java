@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.time.LocalDate;
+
+/**
+ * Patient without studies.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@JsonFilter(FieldSelectionAdvice.FILTER)
+public class PatientDto {
+
+    private final Integer id;
+    private final String name;
+    private final Patient.SEX sex;
+    private final LocalDate birthDate;
+
+    PatientDto(PatientSummary patient) {
+        this.id = patient.getId();
+        this.name = patient.getName();
+        this.sex = patient.getSex();
+        this.birthDate = patient.getBirthDate();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Patient.SEX getSex() {
+        return sex;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Doctor and room API, answered from the reference data cache.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RestController
+@RequestMapping(ApiConfiguration.API)
+class ReferenceDataApiController {
+
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+
+    public ReferenceDataApiController(DoctorRepository doctorRepository, RoomRepository roomRepository) {
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    @GetMapping("/doctors")
+    public List<ReferenceDto> getDoctors() {
+        return this.doctorRepository.findAll().stream().map(ReferenceDto::new).collect(Collectors.toList());
+    }
+
+    @GetMapping("/rooms")
+    public List<ReferenceDto> getRooms() {
+        return this.roomRepository.findAll().stream().map(ReferenceDto::new).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.model.NamedEntity;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+/**
+ * Doctor or room.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@JsonFilter(FieldSelectionAdvice.FILTER)
+public class ReferenceDto {
+
+    private final Integer id;
+    private final String name;
+
+    ReferenceDto(NamedEntity entity) {
+        this.id = entity.getId();
+        this.name = entity.getName();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
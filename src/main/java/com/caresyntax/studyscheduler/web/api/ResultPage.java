@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Items of a page with the link to the next page.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultPage<T> {
+
+    private final List<T> items;
+    private final Long total;
+    private final String next;
+
+    ResultPage(List<T> items, Long total, String next) {
+        this.items = items;
+        this.total = total;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return number of items of all pages, null if not counted
+     */
+    public Long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return URL of the next page, null on the last page
+     */
+    public String getNext() {
+        return next;
+    }
+}
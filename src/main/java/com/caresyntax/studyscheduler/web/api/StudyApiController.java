@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Study API. Pages are read like the study list, in start time order after the last study of the previous page.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RestController
+@RequestMapping(ApiConfiguration.API + "/studies")
+class StudyApiController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final StudyRepository studyRepository;
+
+    public StudyApiController(StudyRepository studyRepository) {
+        this.studyRepository = studyRepository;
+    }
+
+    @GetMapping
+    public ResultPage<StudyDto> getStudies(StudyFilter filter,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStartTime,
+                                           @RequestParam(required = false) Integer afterId,
+                                           @RequestParam(defaultValue = "50") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<StudyRow> studies = this.studyRepository.findStudies(filter, afterStartTime, afterId, pageSize + 1);
+        String next = null;
+        if (studies.size() > pageSize) {
+            studies = studies.subList(0, pageSize);
+            StudyRow last = studies.get(pageSize - 1);
+            next = ServletUriComponentsBuilder.fromCurrentRequest().
+                replaceQueryParam("afterStartTime", last.getStartTime()).
+                replaceQueryParam("afterId", last.getId()).
+                toUriString();
+        }
+        return new ResultPage<>(studies.stream().map(StudyDto::new).collect(Collectors.toList()), null, next);
+    }
+
+    /**
+     * Answers from the archive if the study has been moved there.
+     */
+    @GetMapping("/{studyId}")
+    public ResponseEntity<StudyDto> getStudy(@PathVariable int studyId) {
+        Optional<StudyRow> study = this.studyRepository.findById(studyId).map(StudyRow::of);
+        if (!study.isPresent()) study = this.studyRepository.findArchivedStudy(studyId).map(StudyRow::of);
+        return ResponseEntity.of(study.map(StudyDto::new));
+    }
+}
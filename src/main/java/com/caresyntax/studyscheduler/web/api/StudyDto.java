@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.Study;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Study with the ids and names of its patient, doctor and room.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@JsonFilter(FieldSelectionAdvice.FILTER)
+public class StudyDto {
+
+    private final Integer id;
+    private final Integer patientId;
+    private final String patientName;
+    private final Integer doctorId;
+    private final String doctorName;
+    private final Integer roomId;
+    private final String roomName;
+    private final String description;
+    private final Study.STATUS status;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    StudyDto(StudyRow study) {
+        this.id = study.getId();
+        this.patientId = study.getPatientId();
+        this.patientName = study.getPatientName();
+        this.doctorId = study.getDoctorId();
+        this.doctorName = study.getDoctorName();
+        this.roomId = study.getRoomId();
+        this.roomName = study.getRoomName();
+        this.description = study.getDescription();
+        this.status = study.getStatus();
+        this.startTime = study.getStartTime();
+        this.endTime = study.getEndTime();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Study.STATUS getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+}
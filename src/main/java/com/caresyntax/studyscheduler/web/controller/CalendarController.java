@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Room;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.OccupancySummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Day and week calendar of a doctor or a room. The week is read from the occupancy summary,
+ * the day lists its studies with a single query. The summary counts active studies only,
+ * the day also lists the finished ones and says how many of them it lists.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Controller
+class CalendarController {
+
+    private static final String CALENDAR = "study/calendar";
+    private static final int MAX_DAY_STUDIES = 500;
+
+    private final OccupancySummary occupancySummary;
+    private final StudyRepository studyRepository;
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final int workingMinutes;
+
+    public CalendarController(OccupancySummary occupancySummary, StudyRepository studyRepository,
+                              DoctorRepository doctorRepository, RoomRepository roomRepository,
+                              @Value("${studyscheduler.optimizer.day-start}") String dayStart,
+                              @Value("${studyscheduler.optimizer.day-end}") String dayEnd) {
+        this.occupancySummary = occupancySummary;
+        this.studyRepository = studyRepository;
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.workingMinutes = (int) Math.max(1, Duration.between(LocalTime.parse(dayStart), LocalTime.parse(dayEnd)).toMinutes());
+    }
+
+    @ModelAttribute("doctors")
+    public Collection<Doctor> populateDoctors() {
+        return this.doctorRepository.findAll();
+    }
+
+    @ModelAttribute("rooms")
+    public Collection<Room> populateRooms() {
+        return this.roomRepository.findAll();
+    }
+
+    @ModelAttribute("workingMinutes")
+    public int populateWorkingMinutes() {
+        return workingMinutes;
+    }
+
+    @GetMapping("/calendar")
+    public String getCalendar() {
+        return CALENDAR;
+    }
+
+    /**
+     * Shows the week of the given date starting on Monday, or only the date itself.
+     * An unknown doctor or room is answered with 404.
+     */
+    @GetMapping("/calendar/{resource}/{id}")
+    public String getCalendar(@PathVariable OccupancySummary.Resource resource, @PathVariable int id,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                              @RequestParam(defaultValue = "false") boolean day,
+                              Model model) {
+        if (date == null) date = LocalDate.now();
+        String name = resource == OccupancySummary.Resource.doctor ?
+            this.doctorRepository.findById(id).orElseThrow(() -> notFound(resource, id)).getName() :
+            this.roomRepository.findById(id).orElseThrow(() -> notFound(resource, id)).getName();
+        model.addAttribute("resource", resource);
+        model.addAttribute("resourceId", id);
+        model.addAttribute("resourceName", name);
+        model.addAttribute("date", date);
+        if (day) {
+            StudyFilter filter = new StudyFilter();
+            filter.setFrom(date);
+            filter.setTo(date);
+            if (resource == OccupancySummary.Resource.doctor) filter.setDoctorId(id);
+            else filter.setRoomId(id);
+            model.addAttribute("summary", this.occupancySummary.getDay(resource, id, date));
+            // one more study than listed tells whether the day has more of them
+            List<StudyRow> studies = this.studyRepository.findStudies(filter, null, null, MAX_DAY_STUDIES + 1);
+            boolean truncated = studies.size() > MAX_DAY_STUDIES;
+            if (truncated) studies = studies.subList(0, MAX_DAY_STUDIES);
+            model.addAttribute("studyList", studies);
+            model.addAttribute("finishedStudies", studies.stream().
+                filter(study -> study.getStatus() == Study.STATUS.finished).
+                count());
+            model.addAttribute("truncated", truncated);
+            model.addAttribute("maxStudies", MAX_DAY_STUDIES);
+            model.addAttribute("previous", date.minusDays(1));
+            model.addAttribute("next", date.plusDays(1));
+        } else {
+            LocalDate monday = date.with(DayOfWeek.MONDAY);
+            model.addAttribute("week", this.occupancySummary.getDays(resource, id, monday, 7));
+            model.addAttribute("previous", monday.minusWeeks(1));
+            model.addAttribute("next", monday.plusWeeks(1));
+        }
+        return CALENDAR;
+    }
+
+    private static ResponseStatusException notFound(OccupancySummary.Resource resource, int id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown " + resource + " " + id);
+    }
+}
@@ -16,16 +16,29 @@
 package com.caresyntax.studyscheduler.web.controller;
 
 import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.AbstractStudy;
 import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Patient web controller
@@ -36,11 +49,15 @@ import java.util.Map;
 class PatientController {
 
     public static final String CREATE_OR_UPDATE_PATIENT_FORM = "patient/createOrUpdatePatientForm";
+    private static final int SIMILAR_PATIENTS_LIMIT = 20;
+    private static final List<String> SORT_PROPERTIES = Arrays.asList("name", "sex", "birthDate");
     private final PatientRepository patientRepository;
+    private final StudyRepository studyRepository;
 
 
-    public PatientController(PatientRepository patientRepository) {
+    public PatientController(PatientRepository patientRepository, StudyRepository studyRepository) {
         this.patientRepository = patientRepository;
+        this.studyRepository = studyRepository;
     }
 
     @InitBinder
@@ -77,26 +94,43 @@ class PatientController {
     }
 
     @GetMapping("/patient")
-    public String searchPatient(Patient patient, BindingResult result, Map<String, Object> model) {
+    public String searchPatient(Patient patient, BindingResult result, @PageableDefault(size = 20) Pageable pageable,
+                                Map<String, Object> model) {
 
-        // allow parameterless GET request for /patient to return all records
+        // allow parameterless GET request for /patient to return all records page by page
         if (patient.getName() == null) {
             patient.setName(""); // empty string signifies broadest possible search
         }
 
+        // links may carry any sort, unsupported properties are left out
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(pageable.getSort().stream().
+            filter(order -> SORT_PROPERTIES.contains(order.getProperty())).
+            collect(Collectors.toList())));
+
         // find patient by name
-        Collection<Patient> results = patientRepository.findByName(patient.getName());
-        if (results.isEmpty()) {
+        Page<PatientSummary> results = patientRepository.findSummariesByName(patient.getName(), pageable);
+        if (results.getTotalElements() == 0) {
+            // offer patients with similar names
+            List<PatientSummary> similar = patientRepository.findSimilarByName(patient.getName(), SIMILAR_PATIENTS_LIMIT);
+            if (!similar.isEmpty()) {
+                model.put("selections", similar);
+                return "patient/patientList";
+            }
             // no patient found
             result.rejectValue("name", "error.notFound", "not found");
             return "patient/findPatients";
-        } else if (results.size() == 1) {
+        } else if (results.getTotalElements() == 1) {
             // 1 patient found
-            patient = results.iterator().next();
-            return "redirect:/patient/" + patient.getId();
+            return "redirect:/patient/" + results.getContent().get(0).getId();
         } else {
             // multiple patient found
-            model.put("selections", results);
+            model.put("selections", results.getContent());
+            model.put("page", results);
+            if (results.hasNext()) {
+                model.put("nextPage", ServletUriComponentsBuilder.fromCurrentRequest().
+                    replaceQueryParam("page", results.getNumber() + 1).
+                    toUriString());
+            }
             return "patient/patientList";
         }
     }
@@ -120,14 +154,19 @@ class PatientController {
     }
 
     /**
-     * Custom handler for displaying an patient.
+     * Custom handler for displaying an patient with the studies, including the archived ones, ordered by start time.
      *
      * @param patientId the ID of the patient to display
      * @return a ModelMap with the model attributes for the view
      */
     @GetMapping("/patient/{patientId}")
     public String showPatient(@PathVariable("patientId") int patientId, Model model) {
-        model.addAttribute(this.patientRepository.findById(patientId).get());
+        Patient patient = this.patientRepository.findWithStudiesById(patientId).get();
+        List<AbstractStudy> studies = new ArrayList<>(this.studyRepository.findArchivedStudies(patientId));
+        if (patient.getStudies() != null) studies.addAll(patient.getStudies());
+        studies.sort(Comparator.comparing(AbstractStudy::getStartTime).thenComparing(AbstractStudy::getId));
+        model.addAttribute(patient);
+        model.addAttribute("studies", studies);
         return "patient/patientDetails";
     }
 
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.optimizer.OptimizedSchedule;
+import com.caresyntax.studyscheduler.optimizer.ScheduleConflictException;
+import com.caresyntax.studyscheduler.optimizer.ScheduleOptimizer;
+import com.caresyntax.studyscheduler.optimizer.StudyRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+/**
+ * Schedule optimizer web controller
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Controller
+class ScheduleOptimizerController {
+
+    private final ScheduleOptimizer scheduleOptimizer;
+
+    public ScheduleOptimizerController(ScheduleOptimizer scheduleOptimizer) {
+        this.scheduleOptimizer = scheduleOptimizer;
+    }
+
+    /**
+     * Plans the requested studies and stores the assignments unless only a preview is asked for.
+     * A plan overtaken by a concurrent change is not stored and answered with 409.
+     */
+    @PostMapping(value = "/studies/optimize", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<OptimizedSchedule> optimize(@RequestBody List<StudyRequest> requests,
+                                                      @RequestParam(defaultValue = "false") boolean dryRun) {
+        OptimizedSchedule schedule = scheduleOptimizer.optimize(requests);
+        if (!dryRun) {
+            try {
+                scheduleOptimizer.save(schedule);
+            } catch (ScheduleConflictException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(schedule);
+            }
+        }
+        return ResponseEntity.ok(schedule);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.board.StudyBoard;
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+/**
+ * Live schedule board of a day, optionally of one doctor or room. The page is rendered once
+ * and then updated from the server-sent changes.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Controller
+class StudyBoardController {
+
+    private static final int MAX_BOARD_STUDIES = 500;
+
+    private final StudyBoard studyBoard;
+    private final StudyRepository studyRepository;
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+
+    public StudyBoardController(StudyBoard studyBoard, StudyRepository studyRepository,
+                                DoctorRepository doctorRepository, RoomRepository roomRepository) {
+        this.studyBoard = studyBoard;
+        this.studyRepository = studyRepository;
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    @GetMapping("/studies/board")
+    public String getBoard(@RequestParam(required = false) Integer doctorId,
+                           @RequestParam(required = false) Integer roomId,
+                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                           Model model) {
+        if (date == null) date = LocalDate.now();
+        StudyFilter filter = new StudyFilter();
+        filter.setFrom(date);
+        filter.setTo(date);
+        filter.setDoctorId(doctorId);
+        filter.setRoomId(roomId);
+        model.addAttribute("filter", filter);
+        model.addAttribute("doctors", this.doctorRepository.findAll());
+        model.addAttribute("rooms", this.roomRepository.findAll());
+        model.addAttribute("studyList", this.studyRepository.findStudies(filter, null, null, MAX_BOARD_STUDIES));
+        return "study/board";
+    }
+
+    /**
+     * Streams the changed studies of the doctor or room. Answers 503 when too many boards are connected,
+     * the browser then retries on its own.
+     */
+    @GetMapping(value = "/studies/board/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam(required = false) Integer doctorId,
+                                                @RequestParam(required = false) Integer roomId) {
+        return this.studyBoard.subscribe(doctorId, roomId).
+            map(ResponseEntity::ok).
+            orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -18,11 +18,22 @@ package com.caresyntax.studyscheduler.web.controller;
 import com.caresyntax.studyscheduler.dao.DoctorRepository;
 import com.caresyntax.studyscheduler.dao.PatientRepository;
 import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyFilter;
 import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.BaseEntity;
 import com.caresyntax.studyscheduler.model.Doctor;
 import com.caresyntax.studyscheduler.model.Patient;
 import com.caresyntax.studyscheduler.model.Room;
 import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.Slot;
+import com.caresyntax.studyscheduler.schedule.SlotFinder;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -30,10 +41,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Study web controller
@@ -44,22 +67,91 @@ import java.util.List;
 class StudyController {
 
     public static final String CREATE_OR_UPDATE_STUDY_FORM = "study/createOrUpdateStudyForm";
+    private static final String TIME_PATTERN = "yyyy-MM-dd HH:mm";
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(TIME_PATTERN);
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SLOTS = 50;
+    private static final int MAX_SLOT_DAYS = 90;
+    private static final int OFFERED_SLOTS = 5;
+    private static final int OFFERED_SLOT_DAYS = 14;
     private final PatientRepository patientRepository;
     private final StudyRepository studyRepository;
     private final RoomRepository roomRepository;
     private final DoctorRepository doctorRepository;
+    private final SlotFinder slotFinder;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
 
 
-    public StudyController(PatientRepository patientRepository, StudyRepository studyRepository, RoomRepository roomRepository, DoctorRepository doctorRepository) {
+    public StudyController(PatientRepository patientRepository, StudyRepository studyRepository, RoomRepository roomRepository, DoctorRepository doctorRepository,
+                           SlotFinder slotFinder,
+                           @Value("${studyscheduler.study.default-duration}") Duration defaultDuration,
+                           @Value("${studyscheduler.study.max-duration}") Duration maxDuration) {
         this.patientRepository = patientRepository;
         this.studyRepository = studyRepository;
         this.roomRepository = roomRepository;
         this.doctorRepository = doctorRepository;
+        this.slotFinder = slotFinder;
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
     }
 
+    /**
+     * Offers only rooms that are free at the submitted time, keeping the selected room.
+     */
     @ModelAttribute("rooms")
-    public Collection<Room> populateRooms() {
-        return this.roomRepository.findAll();
+    public Collection<Room> populateRooms(@RequestParam(required = false) String startTime,
+                                          @RequestParam(required = false) String endTime,
+                                          @RequestParam(name = "room", required = false) String roomId,
+                                          @PathVariable(name = "studyId", required = false) Integer studyId) {
+        List<Room> rooms = this.roomRepository.findAll();
+        LocalDateTime start = parseTime(startTime);
+        if (start == null) return rooms;
+
+        Collection<Room> freeRooms = this.studyRepository.findFreeRooms(rooms, start, parseTime(endTime), studyId);
+        return rooms.stream().
+            filter(room -> freeRooms.contains(room) || String.valueOf(room.getId()).equals(roomId)).
+            collect(Collectors.toList());
+    }
+
+    @GetMapping("/rooms/free")
+    @ResponseBody
+    public Collection<Room> getFreeRooms(@RequestParam @DateTimeFormat(pattern = TIME_PATTERN) LocalDateTime startTime,
+                                         @RequestParam(required = false) @DateTimeFormat(pattern = TIME_PATTERN) LocalDateTime endTime,
+                                         @RequestParam(required = false) Integer studyId) {
+        return this.studyRepository.findFreeRooms(this.roomRepository.findAll(), startTime, endTime, studyId);
+    }
+
+    /**
+     * Earliest times at which the patient, doctor and room are all free.
+     *
+     * @param minutes study duration, the default duration if not given
+     * @param from    window start, now if not given
+     * @param days    window length
+     */
+    @GetMapping("/slots/free")
+    @ResponseBody
+    public ResponseEntity<List<Slot>> getFreeSlots(@RequestParam(required = false) Integer patientId,
+                                                   @RequestParam(required = false) Integer doctorId,
+                                                   @RequestParam(required = false) Integer roomId,
+                                                   @RequestParam(required = false) Integer studyId,
+                                                   @RequestParam(required = false) Integer minutes,
+                                                   @RequestParam(required = false) @DateTimeFormat(pattern = TIME_PATTERN) LocalDateTime from,
+                                                   @RequestParam(defaultValue = "14") int days,
+                                                   @RequestParam(defaultValue = "5") int limit) {
+        Duration duration = minutes == null ? defaultDuration : Duration.ofMinutes(minutes);
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0)
+            return ResponseEntity.badRequest().build();
+
+        LocalDateTime start = from == null ? LocalDateTime.now() : from;
+        LocalDateTime end = start.plusDays(Math.max(1, Math.min(days, MAX_SLOT_DAYS)));
+        return ResponseEntity.ok(this.slotFinder.findFreeSlots(patientId, doctorId, roomId, studyId, duration,
+            start, end, Math.max(1, Math.min(limit, MAX_SLOTS))));
+    }
+
+    @ModelAttribute("patientId")
+    public Integer populatePatientId(@PathVariable(name = "patientId", required = false) Integer patientId) {
+        return patientId;
     }
 
     @ModelAttribute("doctors")
@@ -72,50 +164,128 @@ class StudyController {
         return Study.STATUS.values();
     }
 
+    /**
+     * Shows a page of studies, or all of them streamed from a database cursor
+     * while the view is rendered. The cursor is closed when the request completes.
+     */
     @GetMapping("/studies")
-    public String getStudyListForm(Model model) {
-        List<Study> studyList = this.studyRepository.findAll();
-        model.addAttribute(studyList);
+    public String getStudyListForm(@ModelAttribute("filter") StudyFilter filter,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStartTime,
+                                   @RequestParam(required = false) Integer afterId,
+                                   @RequestParam(defaultValue = "50") int size,
+                                   @RequestParam(defaultValue = "false") boolean stream,
+                                   Model model) {
+        if (stream) {
+            Stream<StudyRow> studies = this.studyRepository.streamStudies(filter);
+            RequestContextHolder.currentRequestAttributes().
+                registerDestructionCallback("studyList", studies::close, RequestAttributes.SCOPE_REQUEST);
+            model.addAttribute("studyList", studies.iterator());
+            return "study/studyList";
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<StudyRow> studyList = this.studyRepository.findStudies(filter, afterStartTime, afterId, pageSize + 1);
+        if (studyList.size() > pageSize) {
+            studyList = studyList.subList(0, pageSize);
+            StudyRow last = studyList.get(pageSize - 1);
+            model.addAttribute("nextPage", ServletUriComponentsBuilder.fromCurrentRequest().
+                replaceQueryParam("afterStartTime", last.getStartTime()).
+                replaceQueryParam("afterId", last.getId()).
+                toUriString());
+            model.addAttribute("allPages", ServletUriComponentsBuilder.fromCurrentRequest().
+                replaceQueryParam("afterStartTime").
+                replaceQueryParam("afterId").
+                replaceQueryParam("stream", true).
+                toUriString());
+        }
+        model.addAttribute("studyList", studyList);
         return "study/studyList";
     }
 
+    /**
+     * Pre-populates the form with the earliest time at which the patient and the first offered
+     * doctor and room are free, so that the form can be submitted as it is.
+     */
     @GetMapping("/patient/{patientId}/study/new")
-    public String getNewStudyForm(Model model) {
+    public String getNewStudyForm(@PathVariable("patientId") int patientId, Model model) {
         Study study = new Study();
+        List<Doctor> doctors = this.doctorRepository.findAll();
+        List<Room> rooms = this.roomRepository.findAll();
+        if (!doctors.isEmpty() && !rooms.isEmpty()) {
+            study.setDoctor(doctors.get(0));
+            study.setRoom(rooms.get(0));
+            LocalDateTime now = LocalDateTime.now();
+            this.slotFinder.findFreeSlots(patientId, study.getDoctor().getId(), study.getRoom().getId(), null,
+                defaultDuration, now, now.plusDays(OFFERED_SLOT_DAYS), 1).
+                forEach(slot -> {
+                    study.setStartTime(slot.getStartTime());
+                    study.setEndTime(slot.getEndTime());
+                });
+        }
         model.addAttribute(study);
         return CREATE_OR_UPDATE_STUDY_FORM;
     }
 
+    /**
+     * Archived studies can not be edited, links to them lead to the patient page that lists them.
+     */
     @GetMapping("/patient/{patientId}/study/{studyId}/edit")
     public String getStudyForm(@PathVariable("studyId") int studyId, Model model, String source) {
-        Study study = this.studyRepository.findById(studyId).get();
-        model.addAttribute(study);
+        Optional<Study> study = this.studyRepository.findById(studyId);
+        if (!study.isPresent()) return "redirect:/patient/{patientId}";
+        model.addAttribute(study.get());
         if (source != null)
             model.addAttribute(source);
         return CREATE_OR_UPDATE_STUDY_FORM;
     }
 
     @PostMapping("/patient/{patientId}/study/new")
-    public String updateNewStudyForm(@PathVariable("patientId") int patientId, @Valid Study study, BindingResult result) {
+    public String updateNewStudyForm(@PathVariable("patientId") int patientId, @Valid Study study, BindingResult result, Model model) {
         if (result.hasErrors()) {
             return CREATE_OR_UPDATE_STUDY_FORM;
         } else {
             Patient patient = patientRepository.findById(patientId).get();
             study.setPatient(patient);
-            if (isIntersect(study, result)) return CREATE_OR_UPDATE_STUDY_FORM;
-            this.studyRepository.save(study);
+            if (isInvalidTime(study, result)) return CREATE_OR_UPDATE_STUDY_FORM;
+            if (!this.studyRepository.saveIfFree(study)) {
+                rejectIntersecting(study, result, model);
+                return CREATE_OR_UPDATE_STUDY_FORM;
+            }
             return "redirect:/patient/{patientId}";
         }
     }
 
-    private boolean isIntersect(@Valid Study study, BindingResult result) {
-        if (studyRepository.isExistIntersectingStudies(study)) {
-            result.rejectValue("startTime", "error.intersect");
+    private boolean isInvalidTime(Study study, BindingResult result) {
+        if (study.getEndTime() == null) return false;
+        if (!study.getEndTime().isAfter(study.getStartTime())) {
+            result.rejectValue("endTime", "error.endTime");
+            return true;
+        }
+        if (Duration.between(study.getStartTime(), study.getEndTime()).compareTo(maxDuration) > 0) {
+            result.rejectValue("endTime", "error.duration", new Object[]{maxDuration.toHours()}, null);
             return true;
         }
         return false;
     }
 
+    /**
+     * Offers the next free slots with the rejected duration, so that the user does not
+     * have to find a free time by trial and error.
+     */
+    private void rejectIntersecting(Study study, BindingResult result, Model model) {
+        SchedulingMetrics.conflictRejected("form");
+        result.rejectValue("startTime", "error.intersect");
+        Duration duration = study.getEndTime() == null ? defaultDuration :
+            Duration.between(study.getStartTime(), study.getEndTime());
+        model.addAttribute("freeSlots", slotFinder.findFreeSlots(idOf(study.getPatient()), idOf(study.getDoctor()),
+            idOf(study.getRoom()), study.getId(), duration, study.getStartTime(),
+            study.getStartTime().plusDays(OFFERED_SLOT_DAYS), OFFERED_SLOTS));
+    }
+
+    private static Integer idOf(BaseEntity entity) {
+        return entity == null ? null : entity.getId();
+    }
+
     @PostMapping("/patient/{patientId}/study/{studyId}/edit")
     public String updateStudyForm(@PathVariable int patientId, @Valid Study study, BindingResult result, Model model, String source) {
         Patient patient = patientRepository.findById(patientId).get();
@@ -125,13 +295,34 @@ class StudyController {
             model.addAttribute(study);
             return CREATE_OR_UPDATE_STUDY_FORM;
         } else {
-            if (isIntersect(study, result)) return CREATE_OR_UPDATE_STUDY_FORM;
-
-            this.studyRepository.save(study);
+            if (isInvalidTime(study, result)) return CREATE_OR_UPDATE_STUDY_FORM;
+            try {
+                if (!this.studyRepository.saveIfFree(study)) {
+                    rejectIntersecting(study, result, model);
+                    return CREATE_OR_UPDATE_STUDY_FORM;
+                }
+            } catch (OptimisticLockingFailureException e) {
+                // the form shows the study as changed meanwhile, the user applies the own change to it again
+                Optional<Study> current = this.studyRepository.findById(study.getId());
+                if (!current.isPresent()) return "redirect:/patient/{patientId}";
+                BeanUtils.copyProperties(current.get(), study);
+                result.reject("error.changed");
+                return CREATE_OR_UPDATE_STUDY_FORM;
+            }
             if ("studyList".equals(source)) return "redirect:/studies";
             else
                 return "redirect:/patient/{patientId}";
         }
     }
 
+    private static LocalDateTime parseTime(String time) {
+        if (time == null || time.isEmpty()) return null;
+        try {
+            return LocalDateTime.parse(time, TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            // reported by the form validation
+            return null;
+        }
+    }
+
 }
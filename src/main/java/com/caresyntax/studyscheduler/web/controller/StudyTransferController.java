@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.caresyntax.studyscheduler.transfer.CsvStudyRecordReader;
+import com.caresyntax.studyscheduler.transfer.ExportFormat;
+import com.caresyntax.studyscheduler.transfer.ImportResult;
+import com.caresyntax.studyscheduler.transfer.JsonStudyRecordReader;
+import com.caresyntax.studyscheduler.transfer.StudyExporter;
+import com.caresyntax.studyscheduler.transfer.StudyImporter;
+import com.caresyntax.studyscheduler.transfer.StudyRecordReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk transfer of studies. The request body is read while it arrives, so schedules of any size
+ * can be posted.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@Controller
+class StudyTransferController {
+
+    static final String CSV = "text/csv";
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private final StudyImporter studyImporter;
+    private final StudyExporter studyExporter;
+    private final ObjectMapper objectMapper;
+
+    public StudyTransferController(StudyImporter studyImporter, StudyExporter studyExporter, ObjectMapper objectMapper) {
+        this.studyImporter = studyImporter;
+        this.studyExporter = studyExporter;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/studies/import", consumes = CSV, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ImportResult importCsv(HttpServletRequest request) throws IOException {
+        return importStudies(new CsvStudyRecordReader(request.getReader()));
+    }
+
+    @PostMapping(value = "/studies/import", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON},
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ImportResult importJson(HttpServletRequest request) throws IOException {
+        return importStudies(new JsonStudyRecordReader(request.getInputStream(), objectMapper));
+    }
+
+    private ImportResult importStudies(StudyRecordReader reader) throws IOException {
+        try (StudyRecordReader records = reader) {
+            return studyImporter.importStudies(records);
+        }
+    }
+
+    @GetMapping("/studies/export")
+    public void exportStudies(StudyFilter filter, @RequestParam(defaultValue = "csv") ExportFormat format,
+                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                              HttpServletResponse response) throws IOException {
+        try (OutputStream output = openExport(response, "studies", format, acceptEncoding)) {
+            studyExporter.exportStudies(filter, format, output);
+        }
+    }
+
+    @GetMapping("/patient/export")
+    public void exportPatients(@RequestParam(defaultValue = "csv") ExportFormat format,
+                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                               HttpServletResponse response) throws IOException {
+        try (OutputStream output = openExport(response, "patients", format, acceptEncoding)) {
+            studyExporter.exportPatients(format, output);
+        }
+    }
+
+    /**
+     * Rows are written to the response while they are read, so the body is compressed here
+     * rather than buffered for the servlet container.
+     */
+    private static OutputStream openExport(HttpServletResponse response, String name, ExportFormat format,
+                                           String acceptEncoding) throws IOException {
+        response.setContentType(format.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"" + name + "." + format.name() + "\"");
+        if (StringUtils.hasText(acceptEncoding) && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,53 @@
+-- ids are allocated by Hibernate in blocks of 50 (pooled optimizer), which allows batched inserts;
+-- the sequences start above the ids of the doctors and rooms inserted by V2
+CREATE SEQUENCE doctor_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE room_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE study_seq START WITH 1000 INCREMENT BY 50;
+
+CREATE TABLE doctor (
+  id   INTEGER DEFAULT NEXT VALUE FOR doctor_seq PRIMARY KEY,
+  name VARCHAR(30)
+);
+CREATE INDEX doctor_name
+  ON doctor (name);
+
+CREATE TABLE room (
+  id   INTEGER DEFAULT NEXT VALUE FOR room_seq PRIMARY KEY,
+  name VARCHAR(30)
+);
+
+CREATE TABLE patient (
+  id        INTEGER DEFAULT NEXT VALUE FOR patient_seq PRIMARY KEY,
+  name      VARCHAR(30),
+  sex       TINYINT,
+  birth_date DATE
+);
+
+CREATE TABLE study (
+  id        INTEGER DEFAULT NEXT VALUE FOR study_seq PRIMARY KEY,
+  patient_id      INTEGER,
+  description       VARCHAR(300),
+  status TINYINT,
+  start_time DATETIME,
+  end_time DATETIME,
+  doctor_id      INTEGER,
+  room_id      INTEGER,
+  version      INTEGER DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX study_start
+  ON study (start_time, id);
+CREATE INDEX study_patient_status_start
+  ON study (patient_id, status, start_time);
+CREATE INDEX study_doctor_status_start
+  ON study (doctor_id, status, start_time);
+CREATE INDEX study_room_status_start
+  ON study (room_id, status, start_time);
+
+ALTER TABLE study
+  ADD CONSTRAINT fk_study_patient FOREIGN KEY (patient_id) REFERENCES patient (id);
+ALTER TABLE study
+  ADD CONSTRAINT fk_study_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id);
+ALTER TABLE study
+  ADD CONSTRAINT fk_study_room FOREIGN KEY (room_id) REFERENCES room (id);
@@ -0,0 +1,12 @@
+INSERT INTO doctor VALUES (1, 'James Carter');
+INSERT INTO doctor VALUES (2, 'Helen Leary');
+INSERT INTO doctor VALUES (3, 'Linda Douglas');
+INSERT INTO doctor VALUES (4, 'Rafael Ortega');
+INSERT INTO doctor VALUES (5, 'Henry Stevens');
+INSERT INTO doctor VALUES (6, 'Sharon Jenkins');
+
+INSERT INTO room VALUES (1, 'room 1');
+INSERT INTO room VALUES (2, 'room 2');
+INSERT INTO room VALUES (3, 'room 3');
+INSERT INTO room VALUES (4, 'room 4');
+INSERT INTO room VALUES (5, 'room 5');
@@ -0,0 +1,27 @@
+-- finished studies moved out of the study table by the archiver, they keep their ids
+CREATE TABLE study_archive (
+  id        INTEGER PRIMARY KEY,
+  patient_id      INTEGER,
+  description       VARCHAR(300),
+  status TINYINT,
+  start_time DATETIME,
+  end_time DATETIME,
+  doctor_id      INTEGER,
+  room_id      INTEGER
+);
+
+CREATE INDEX study_archive_start
+  ON study_archive (start_time, id);
+CREATE INDEX study_archive_patient_start
+  ON study_archive (patient_id, start_time);
+CREATE INDEX study_archive_doctor_start
+  ON study_archive (doctor_id, start_time);
+CREATE INDEX study_archive_room_start
+  ON study_archive (room_id, start_time);
+
+ALTER TABLE study_archive
+  ADD CONSTRAINT fk_study_archive_patient FOREIGN KEY (patient_id) REFERENCES patient (id);
+ALTER TABLE study_archive
+  ADD CONSTRAINT fk_study_archive_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id);
+ALTER TABLE study_archive
+  ADD CONSTRAINT fk_study_archive_room FOREIGN KEY (room_id) REFERENCES room (id);
@@ -1,37 +1,58 @@
 DROP TABLE doctor IF EXISTS;
 DROP TABLE room IF EXISTS;
 DROP TABLE patient IF EXISTS;
+DROP SEQUENCE study_seq IF EXISTS;
+DROP SEQUENCE doctor_seq IF EXISTS;
+DROP SEQUENCE room_seq IF EXISTS;
+DROP SEQUENCE patient_seq IF EXISTS;
+
+-- ids are allocated by Hibernate in blocks of 50 (pooled optimizer), which allows batched inserts;
+-- the sequences start above the ids of data.sql
+CREATE SEQUENCE doctor_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE room_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE study_seq START WITH 1000 INCREMENT BY 50;
 
 CREATE TABLE doctor (
-  id   INTEGER IDENTITY PRIMARY KEY,
+  id   INTEGER DEFAULT NEXT VALUE FOR doctor_seq PRIMARY KEY,
   name VARCHAR(30)
 );
 CREATE INDEX doctor_name
   ON doctor (name);
 
 CREATE TABLE room (
-  id   INTEGER IDENTITY PRIMARY KEY,
+  id   INTEGER DEFAULT NEXT VALUE FOR room_seq PRIMARY KEY,
   name VARCHAR(30)
 );
 
 CREATE TABLE patient (
-  id        INTEGER IDENTITY PRIMARY KEY,
+  id        INTEGER DEFAULT NEXT VALUE FOR patient_seq PRIMARY KEY,
   name      VARCHAR(30),
   sex       TINYINT,
   birth_date DATE
 );
 
 CREATE TABLE study (
-  id        INTEGER IDENTITY PRIMARY KEY,
+  id        INTEGER DEFAULT NEXT VALUE FOR study_seq PRIMARY KEY,
   patient_id      INTEGER,
   description       VARCHAR(300),
   status TINYINT,
   start_time DATETIME,
   end_time DATETIME,
   doctor_id      INTEGER,
-  room_id      INTEGER
+  room_id      INTEGER,
+  version      INTEGER DEFAULT 0 NOT NULL
 );
 
+CREATE INDEX study_start
+  ON study (start_time, id);
+CREATE INDEX study_patient_status_start
+  ON study (patient_id, status, start_time);
+CREATE INDEX study_doctor_status_start
+  ON study (doctor_id, status, start_time);
+CREATE INDEX study_room_status_start
+  ON study (room_id, status, start_time);
+
 ALTER TABLE study
   ADD CONSTRAINT fk_study_patient FOREIGN KEY (patient_id) REFERENCES patient (id);
 ALTER TABLE study
@@ -39,4 +60,30 @@ ALTER TABLE study
 ALTER TABLE study
   ADD CONSTRAINT fk_study_room FOREIGN KEY (room_id) REFERENCES room (id);
 
+-- finished studies moved out of the study table by the archiver, they keep their ids
+CREATE TABLE study_archive (
+  id        INTEGER PRIMARY KEY,
+  patient_id      INTEGER,
+  description       VARCHAR(300),
+  status TINYINT,
+  start_time DATETIME,
+  end_time DATETIME,
+  doctor_id      INTEGER,
+  room_id      INTEGER
+);
+
+CREATE INDEX study_archive_start
+  ON study_archive (start_time, id);
+CREATE INDEX study_archive_patient_start
+  ON study_archive (patient_id, start_time);
+CREATE INDEX study_archive_doctor_start
+  ON study_archive (doctor_id, start_time);
+CREATE INDEX study_archive_room_start
+  ON study_archive (room_id, start_time);
 
+ALTER TABLE study_archive
+  ADD CONSTRAINT fk_study_archive_patient FOREIGN KEY (patient_id) REFERENCES patient (id);
+ALTER TABLE study_archive
+  ADD CONSTRAINT fk_study_archive_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id);
+ALTER TABLE study_archive
+  ADD CONSTRAINT fk_study_archive_room FOREIGN KEY (room_id) REFERENCES room (id);
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.archive;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.ArchivedStudy;
+import com.caresyntax.studyscheduler.model.Study;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests moving finished studies to the archive and reading them together with the current ones.
+ * The archive reach is kept by the repository, so these tests run in an own context.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+@TestPropertySource(properties = "studyscheduler.archive.batch-size=2")
+public class StudyArchiverTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2001, 3, 5, 9, 0);
+    private static final LocalDateTime CUTOFF = START.plusDays(10);
+
+    @Autowired
+    private StudyArchiver archiver;
+
+    @Autowired
+    private StudyRepository studyRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void shouldMoveOnlyOldFinishedStudiesInBatches() {
+        Study first = save(Study.STATUS.finished, START);
+        save(Study.STATUS.finished, START.plusDays(1));
+        save(Study.STATUS.finished, START.plusDays(2));
+        Study planned = save(Study.STATUS.planned, START.plusDays(3));
+        Study recent = save(Study.STATUS.finished, CUTOFF);
+
+        assertThat(archive()).isEqualTo(3);
+
+        assertThat(this.studyRepository.findById(first.getId())).isEmpty();
+        assertThat(this.studyRepository.findById(planned.getId())).isPresent();
+        assertThat(this.studyRepository.findById(recent.getId())).isPresent();
+        assertThat(this.studyRepository.findArchivedStudy(first.getId()).map(ArchivedStudy::getStartTime)).contains(START);
+        assertThat(archive()).isZero();
+    }
+
+    @Test
+    public void shouldReadArchivedStudiesWithTheCurrentOnes() {
+        Study first = save(Study.STATUS.finished, START);
+        Study planned = save(Study.STATUS.planned, START.plusDays(1));
+        Study last = save(Study.STATUS.finished, START.plusDays(2));
+        archive();
+
+        StudyFilter filter = new StudyFilter();
+        filter.setPatientId(3);
+        filter.setFrom(START.toLocalDate());
+        filter.setTo(LocalDate.of(2001, 3, 31));
+        List<StudyRow> rows = this.studyRepository.findStudies(filter, null, null, 10);
+        assertThat(rows).extracting(StudyRow::getId).containsExactly(first.getId(), planned.getId(), last.getId());
+        assertThat(rows).extracting(StudyRow::isArchived).containsExactly(true, false, true);
+        try (Stream<StudyRow> studies = this.studyRepository.streamStudies(filter)) {
+            assertThat(studies.map(StudyRow::getId).collect(Collectors.toList())).
+                containsExactly(first.getId(), planned.getId(), last.getId());
+        }
+        assertThat(this.studyRepository.findStudies(filter, null, null, 2)).extracting(StudyRow::getId).
+            containsExactly(first.getId(), planned.getId());
+        assertThat(this.studyRepository.findStudies(filter, planned.getStartTime(), planned.getId(), 2)).
+            extracting(StudyRow::getId).containsExactly(last.getId());
+
+        filter.setStatus(Study.STATUS.planned);
+        assertThat(this.studyRepository.findStudies(filter, null, null, 10)).extracting(StudyRow::getId).
+            containsExactly(planned.getId());
+
+        assertThat(this.studyRepository.findArchivedStudies(3)).extracting(ArchivedStudy::getId).
+            containsExactly(first.getId(), last.getId());
+    }
+
+    @Test
+    public void shouldRejectEditOfArchivedStudy() {
+        Study study = save(Study.STATUS.finished, START);
+        archive();
+
+        study.setDescription("changed");
+
+        assertThatThrownBy(() -> this.studyRepository.save(study)).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(this.studyRepository.findArchivedStudy(study.getId()).map(ArchivedStudy::getDescription)).contains("study");
+    }
+
+    private int archive() {
+        int archived = this.archiver.archiveFinished(CUTOFF);
+        this.entityManager.clear();
+        return archived;
+    }
+
+    private Study save(Study.STATUS status, LocalDateTime startTime) {
+        Study study = new Study();
+        study.setDescription("study");
+        study.setStatus(status);
+        study.setPatient(this.patientRepository.findById(3).get());
+        study.setDoctor(this.doctorRepository.findById(6).get());
+        study.setRoom(this.roomRepository.findById(5).get());
+        study.setStartTime(startTime);
+        study.setEndTime(startTime.plusHours(1));
+        Study saved = this.studyRepository.save(study);
+        this.entityManager.flush();
+        return saved;
+    }
+}
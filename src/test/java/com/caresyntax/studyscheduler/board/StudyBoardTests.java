@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.board;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyChangedEvent;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.BaseEntity;
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Room;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+import com.caresyntax.studyscheduler.search.PatientNameIndex;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for {@link StudyBoard}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyBoardTests {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2019, 4, 22, 9, 0);
+
+    private SimpleMeterRegistry registry;
+    private StudyBoard board;
+
+    @Before
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        PatientNameIndex patientNameIndex = new PatientNameIndex();
+        patientNameIndex.reload(Collections.singletonList(new PatientSummary(1, "George Franklin", Patient.SEX.male, null)));
+        DoctorRepository doctorRepository = mock(DoctorRepository.class);
+        Doctor doctor = new Doctor();
+        doctor.setName("James Carter");
+        given(doctorRepository.findById(1)).willReturn(Optional.of(doctor));
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        board = new StudyBoard(patientNameIndex, doctorRepository, roomRepository, 3, 2, Duration.ofMinutes(1), 2);
+    }
+
+    @After
+    public void tearDown() {
+        board.close();
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    public void shouldSendChangesToBoardsOfDoctorOrRoom() throws Exception {
+        RecordingEmitter doctorBoard = new RecordingEmitter();
+        RecordingEmitter roomBoard = new RecordingEmitter();
+        RecordingEmitter allBoard = new RecordingEmitter();
+        board.subscribe(doctorBoard, 1, null);
+        board.subscribe(roomBoard, null, 2);
+        board.subscribe(allBoard, null, null);
+
+        board.studyChanged(event(10, 1, 3, null));
+        await(() -> doctorBoard.studies.size() == 1 && allBoard.studies.size() == 1);
+        StudyRow study = doctorBoard.studies.get(0);
+        assertThat(study.getId()).isEqualTo(10);
+        assertThat(study.getPatientName()).isEqualTo("George Franklin");
+        assertThat(study.getDoctorName()).isEqualTo("James Carter");
+
+        board.studyChanged(event(10, 4, 3, new StudyInterval(10, 1, 4, 2, NINE, NINE.plusHours(1))));
+        await(() -> roomBoard.studies.size() == 1 && allBoard.studies.size() == 2);
+        assertThat(doctorBoard.studies).hasSize(1);
+        assertThat(roomBoard.resets).isZero();
+    }
+
+    @Test
+    public void shouldResetBoardThatDoesNotKeepUp() throws Exception {
+        RecordingEmitter slowBoard = new RecordingEmitter();
+        slowBoard.blocked = new CountDownLatch(1);
+        board.subscribe(slowBoard, null, null);
+
+        board.studyChanged(event(1, 1, 1, null));
+        assertThat(slowBoard.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int id = 2; id <= 5; id++) board.studyChanged(event(id, 1, 1, null));
+        await(() -> registry.get(SchedulingMetrics.BOARD_DROPPED).counter().count() >= 1);
+        slowBoard.blocked.countDown();
+
+        await(() -> slowBoard.resets == 1);
+        assertThat(slowBoard.studies).extracting(StudyRow::getId).startsWith(1).doesNotContain(2, 3, 4);
+    }
+
+    @Test
+    public void shouldForgetDisconnectedBoards() throws Exception {
+        RecordingEmitter gone = new RecordingEmitter();
+        gone.failure = new IOException("Broken pipe");
+        assertThat(board.subscribe(gone, null, null)).isTrue();
+        assertThat(board.getSubscribers()).isEqualTo(1);
+
+        board.studyChanged(event(1, 1, 1, null));
+        await(() -> board.getSubscribers() == 0);
+    }
+
+    @Test
+    public void shouldLimitBoards() {
+        for (int i = 0; i < 3; i++) assertThat(board.subscribe(new RecordingEmitter(), null, null)).isTrue();
+        assertThat(board.subscribe(new RecordingEmitter(), null, null)).isFalse();
+        assertThat(board.getSubscribers()).isEqualTo(3);
+    }
+
+    private static StudyChangedEvent event(int studyId, int doctorId, int roomId, StudyInterval previous) {
+        Study study = new Study();
+        study.setId(studyId);
+        study.setDescription("study " + studyId);
+        study.setStatus(Study.STATUS.planned);
+        study.setPatient(reference(new Patient(), 1));
+        study.setDoctor(reference(new Doctor(), doctorId));
+        study.setRoom(reference(new Room(), roomId));
+        study.setStartTime(NINE);
+        study.setEndTime(NINE.plusHours(1));
+        return new StudyChangedEvent(study, previous);
+    }
+
+    private static <T extends BaseEntity> T reference(T entity, int id) {
+        entity.setId(id);
+        return entity;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<StudyRow> studies = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private volatile int resets;
+        private volatile CountDownLatch blocked;
+        private volatile IOException failure;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (failure != null) throw failure;
+            try {
+                if (blocked != null) blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof StudyRow) studies.add((StudyRow) data.getData());
+                else if (data.getData().toString().contains("event:" + BoardSubscriber.RESET_EVENT)) resets++;
+            }
+        }
+    }
+}
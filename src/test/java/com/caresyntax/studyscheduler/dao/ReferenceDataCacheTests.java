@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Room;
+import com.caresyntax.studyscheduler.system.CacheConfiguration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the cached reference data
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import(CacheConfiguration.class)
+public class ReferenceDataCacheTests {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Test
+    public void shouldCacheRoomsUntilRoomChanges() {
+        List<Room> rooms = this.roomRepository.findAll();
+        assertThat(this.roomRepository.findAll()).isSameAs(rooms);
+
+        Room room = new Room();
+        room.setName("MRT 3");
+        this.roomRepository.save(room);
+
+        List<Room> changed = this.roomRepository.findAll();
+        assertThat(changed).isNotSameAs(rooms).hasSize(rooms.size() + 1);
+
+        this.roomRepository.delete(room);
+        assertThat(this.roomRepository.findAll()).hasSize(rooms.size());
+    }
+
+    @Test
+    public void shouldCacheDoctorsUntilDoctorChanges() {
+        List<Doctor> doctors = this.doctorRepository.findAll();
+        assertThat(this.doctorRepository.findAll()).isSameAs(doctors);
+
+        Doctor doctor = new Doctor();
+        doctor.setName("Helen Leary");
+        this.doctorRepository.save(doctor);
+
+        assertThat(this.doctorRepository.findAll()).hasSize(doctors.size() + 1);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the Hibernate second-level and query cache. They run without a test transaction,
+ * because a session does not read cache entries put after it started.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTests {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StudyRepository studyRepository;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void shouldReadEntitiesFromSecondLevelCache() {
+        doctorRepository.findById(1);
+        patientRepository.findById(1);
+
+        assertThat(doctorRepository.findById(1)).isPresent();
+        assertThat(patientRepository.findById(1)).isPresent();
+        assertThat(statistics.getDomainDataRegionStatistics("doctor").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("patient").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCacheStudiesOfPatient() {
+        int studies = studyRepository.findByPatientId(1).size();
+
+        assertThat(studyRepository.findByPatientId(1)).hasSize(studies);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+}
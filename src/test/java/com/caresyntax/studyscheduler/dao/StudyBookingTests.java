@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.dao;
+
+import com.caresyntax.studyscheduler.model.Study;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link StudyRepository#saveIfFree(Study)}. They run without a test transaction, because bookings
+ * commit in a transaction of their own. The stored studies stay in the database of this context, which the
+ * property keeps apart from the other DAO tests, so every test books a day of its own. The second-level cache
+ * is shared by all contexts and is cleared before every test.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+@TestPropertySource(properties = "studyscheduler.study.interval-index=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StudyBookingTests {
+
+    @Autowired
+    protected PatientRepository patientRepository;
+
+    @Autowired
+    protected StudyRepository studyRepository;
+
+    @Autowired
+    protected DoctorRepository doctorRepository;
+
+    @Autowired
+    protected RoomRepository roomRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Before
+    public void setup() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void shouldSaveOnlyFreeStudies() {
+        LocalDateTime start = LocalDateTime.of(2019, 6, 3, 9, 0);
+        Study study = newStudy(1, 2, 1, start, start.plusHours(1));
+        assertThat(this.studyRepository.saveIfFree(study)).isTrue();
+        assertThat(study.isNew()).isFalse();
+
+        Study overlapping = newStudy(2, 2, 3, start.plusMinutes(30), start.plusHours(2));
+        assertThat(this.studyRepository.saveIfFree(overlapping)).isFalse();
+        assertThat(overlapping.isNew()).isTrue();
+        assertThat(this.studyRepository.findByPatientId(2)).extracting(Study::getStartTime).doesNotContain(overlapping.getStartTime());
+    }
+
+    @Test
+    public void shouldNotSaveStudiesOverlappingThoseOfOtherInstances() {
+        // stored by another instance, so the index of this one does not know it
+        this.jdbcTemplate.update("insert into study (patient_id, description, status, start_time, end_time, doctor_id, room_id) " +
+            "values (3, 'elsewhere', ?, '2019-06-05 09:00:00', '2019-06-05 10:00:00', 3, 4)", Study.STATUS.planned.ordinal());
+        LocalDateTime start = LocalDateTime.of(2019, 6, 5, 9, 30);
+        Study study = newStudy(1, 5, 4, start, start.plusHours(1));
+
+        assertThat(this.studyRepository.saveIfFree(study)).isFalse();
+        assertThat(study.isNew()).isTrue();
+
+        study.setRoom(this.roomRepository.findById(5).get());
+        assertThat(this.studyRepository.saveIfFree(study)).isTrue();
+    }
+
+    @Test
+    public void shouldRejectStaleStudy() {
+        LocalDateTime start = LocalDateTime.of(2019, 6, 4, 9, 0);
+        Study study = this.studyRepository.save(newStudy(1, 1, 1, start, start.plusHours(1)));
+        Study stale = newStudy(1, 1, 1, start, start.plusHours(1));
+        stale.setId(study.getId());
+        stale.setVersion(study.getVersion());
+
+        study.setDescription("changed");
+        study = this.studyRepository.save(study);
+        assertThat(study.getVersion()).isEqualTo(stale.getVersion() + 1);
+
+        assertThatThrownBy(() -> this.studyRepository.saveIfFree(stale)).
+            isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @Transactional
+    public void shouldNotJoinTransaction() {
+        LocalDateTime start = LocalDateTime.of(2019, 6, 6, 9, 0);
+        Study study = newStudy(1, 1, 1, start, start.plusHours(1));
+
+        assertThatThrownBy(() -> this.studyRepository.saveIfFree(study)).
+            isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private Study newStudy(int patientId, int doctorId, int roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        Study study = new Study();
+        study.setDescription("study");
+        study.setStatus(Study.STATUS.planned);
+        study.setPatient(this.patientRepository.findById(patientId).get());
+        study.setDoctor(this.doctorRepository.findById(doctorId).get());
+        study.setRoom(this.roomRepository.findById(roomId).get());
+        study.setStartTime(startTime);
+        study.setEndTime(endTime);
+        return study;
+    }
+}
@@ -16,17 +16,27 @@
 package com.caresyntax.studyscheduler.dao;
 
 import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.hibernate.Hibernate;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -43,21 +53,63 @@ public class StudySchedulerDaoTests {
     @Autowired
     protected PatientRepository patientRepository;
 
+    @Autowired
+    protected StudyRepository studyRepository;
+
+    @Autowired
+    protected DoctorRepository doctorRepository;
+
+    @Autowired
+    protected RoomRepository roomRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
 
     @Test
     public void shouldFindPatientsByName() {
-        Collection<Patient> patients = this.patientRepository.findByName("George Franklin");
-        assertThat(patients.size()).isEqualTo(1);
+        Page<Patient> patients = this.patientRepository.findByName("George Franklin", PageRequest.of(0, 20));
+        assertThat(patients.getTotalElements()).isEqualTo(1);
 
-        patients = this.patientRepository.findByName("Daviss");
-        assertThat(patients.isEmpty()).isTrue();
+        patients = this.patientRepository.findByName("Daviss", PageRequest.of(0, 20));
+        assertThat(patients.getTotalElements()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldFindPatientsPageByPage() {
+        int total = (int) this.patientRepository.count();
+        Page<Patient> first = this.patientRepository.findByName("", PageRequest.of(0, 2, Sort.by("birthDate", "name")));
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.getTotalElements()).isEqualTo(total);
+        assertThat(first.hasNext()).isTrue();
+
+        Page<Patient> second = this.patientRepository.findByName("", first.nextPageable());
+        assertThat(second.getContent()).hasSize(Math.min(total - 2, 2));
+        assertThat(second.getContent()).doesNotContainAnyElementsOf(first.getContent());
+        assertThat(first.getContent().get(1).getBirthDate()).isBeforeOrEqualTo(second.getContent().get(0).getBirthDate());
+    }
+
+    @Test
+    public void shouldFindPatientsBySimilarName() {
+        Collection<PatientSummary> patients = this.patientRepository.findSimilarByName("Daviss", 10);
+        assertThat(patients).extracting(PatientSummary::getName).containsExactly("Betty Davis");
+    }
+
+    @Test
+    public void shouldNotLoadStudiesOfFoundPatients() {
+        Patient patient = this.patientRepository.findByName("George Franklin", PageRequest.of(0, 20)).getContent().get(0);
+        assertThat(Hibernate.isInitialized(patient.getStudies())).isFalse();
+    }
+
+    @Test
+    public void shouldFindPatientWithStudies() {
+        Patient patient = this.patientRepository.findWithStudiesById(1).get();
+        assertThat(Hibernate.isInitialized(patient.getStudies())).isTrue();
     }
 
     @Test
     @Transactional
     public void shouldInsertPatient() {
-        Collection<Patient> patients = this.patientRepository.findByName("Schultz");
-        int found = patients.size();
+        long found = this.patientRepository.findByName("Schultz", PageRequest.of(0, 20)).getTotalElements();
 
         Patient patient = new Patient();
         patient.setName("Schultz");
@@ -66,8 +118,7 @@ public class StudySchedulerDaoTests {
         this.patientRepository.save(patient);
         assertThat(patient.isNew()).isFalse();
 
-        patients = this.patientRepository.findByName("Schultz");
-        assertThat(patients.size()).isEqualTo(found + 1);
+        assertThat(this.patientRepository.findByName("Schultz", PageRequest.of(0, 20)).getTotalElements()).isEqualTo(found + 1);
     }
 
     @Test
@@ -85,4 +136,101 @@ public class StudySchedulerDaoTests {
         assertThat(patient.getName()).isEqualTo(newName);
     }
 
+    @Test
+    @Transactional
+    public void shouldFindIntersectingStudies() {
+        LocalDateTime start = LocalDateTime.of(2019, 4, 22, 9, 0);
+        Study study = newStudy(1, 1, 1, start, start.plusHours(1));
+        this.studyRepository.save(study);
+        assertThat(study.isNew()).isFalse();
+
+        assertThat(this.studyRepository.isExistIntersectingStudies(newStudy(2, 1, 2, start.plusMinutes(30), null))).isTrue();
+        assertThat(this.studyRepository.isExistIntersectingStudies(newStudy(2, 2, 1, start.minusMinutes(30), start.plusMinutes(1)))).isTrue();
+        assertThat(this.studyRepository.isExistIntersectingStudies(newStudy(1, 2, 2, start.plusHours(1), null))).isFalse();
+
+        // moving the study frees its previous time
+        study.setStartTime(start.plusDays(1));
+        study.setEndTime(null);
+        this.studyRepository.save(study);
+        assertThat(this.studyRepository.isExistIntersectingStudies(newStudy(1, 1, 1, start, start.plusHours(1)))).isFalse();
+    }
+
+    @Test
+    public void shouldFindStoredStudiesEndingBeforeTheyStart() {
+        // legacy rows written before the end time was validated, they last the default duration of 30 minutes
+        this.jdbcTemplate.update("insert into study (patient_id, description, status, start_time, end_time, doctor_id, room_id) " +
+            "values (3, 'legacy', ?, '2019-06-10 09:00:00', '2019-06-10 08:00:00', 3, 2)", Study.STATUS.planned.ordinal());
+        this.jdbcTemplate.update("insert into study (patient_id, description, status, start_time, end_time, doctor_id, room_id) " +
+            "values (3, 'legacy', ?, '2019-06-10 11:00:00', '2019-06-10 11:00:00', 3, 2)", Study.STATUS.planned.ordinal());
+        LocalDateTime nine = LocalDateTime.of(2019, 6, 10, 9, 0);
+        LocalDateTime eleven = LocalDateTime.of(2019, 6, 10, 11, 0);
+
+        assertThat(this.studyRepository.isExistStoredIntersectingStudies(newStudy(1, 1, 2, nine, nine.plusMinutes(10)))).isTrue();
+        assertThat(this.studyRepository.isExistStoredIntersectingStudies(newStudy(1, 1, 2, nine.plusMinutes(20), null))).isTrue();
+        assertThat(this.studyRepository.isExistStoredIntersectingStudies(newStudy(1, 1, 2, eleven, eleven.plusMinutes(5)))).isTrue();
+        assertThat(this.studyRepository.isExistStoredIntersectingStudies(newStudy(1, 1, 2, nine.plusMinutes(30), null))).isFalse();
+        assertThat(this.studyRepository.isExistStoredIntersectingStudies(newStudy(1, 1, 2, nine.minusMinutes(30), nine))).isFalse();
+    }
+
+    @Test
+    @Transactional
+    public void shouldFindStudiesPageByPage() {
+        LocalDateTime start = LocalDateTime.of(2019, 4, 22, 9, 0);
+        Study first = this.studyRepository.save(newStudy(1, 4, 1, start, null));
+        Study second = this.studyRepository.save(newStudy(2, 4, 2, start, null));
+        Study third = this.studyRepository.save(newStudy(3, 4, 3, start.plusDays(1), null));
+        this.studyRepository.save(newStudy(3, 5, 4, start, null));
+
+        StudyFilter filter = new StudyFilter();
+        filter.setDoctorId(4);
+        List<StudyRow> page = this.studyRepository.findStudies(filter, null, null, 2);
+        assertThat(page).extracting(StudyRow::getId).containsExactly(first.getId(), second.getId());
+        page = this.studyRepository.findStudies(filter, second.getStartTime(), second.getId(), 2);
+        assertThat(page).extracting(StudyRow::getId).containsExactly(third.getId());
+        assertThat(page.get(0).getPatientName()).isEqualTo(third.getPatient().getName());
+        assertThat(page.get(0).getDoctorId()).isEqualTo(4);
+        assertThat(page.get(0).getRoomName()).isEqualTo(third.getRoom().getName());
+
+        filter.setFrom(start.toLocalDate());
+        filter.setTo(start.toLocalDate());
+        assertThat(this.studyRepository.streamStudies(filter).map(StudyRow::getId).collect(Collectors.toList())).
+            containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    public void shouldFindStudiesOfPatient() {
+        LocalDateTime start = LocalDateTime.of(2019, 4, 23, 9, 0);
+        Study first = this.studyRepository.save(newStudy(2, 4, 1, start, null));
+        this.studyRepository.save(newStudy(3, 5, 2, start, null));
+        Study second = this.studyRepository.save(newStudy(2, 5, 3, start.plusHours(1), null));
+
+        StudyFilter filter = new StudyFilter();
+        filter.setPatientId(2);
+        filter.setFrom(start.toLocalDate());
+        assertThat(this.studyRepository.findStudies(filter, null, null, 10)).extracting(StudyRow::getId).
+            containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    public void shouldFindPatientSummariesByName() {
+        Page<PatientSummary> page = this.patientRepository.findSummariesByName("", PageRequest.of(0, 2, Sort.by("name")));
+        assertThat(page.getTotalElements()).isEqualTo(this.patientRepository.count());
+        assertThat(page.getContent()).extracting(PatientSummary::getName).isSorted();
+        assertThat(this.patientRepository.findSummaryById(1)).hasValueSatisfying(
+            patient -> assertThat(patient.getName()).isEqualTo("George Franklin"));
+        assertThat(this.patientRepository.findSummaryById(-1)).isEmpty();
+    }
+
+    private Study newStudy(int patientId, int doctorId, int roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        Study study = new Study();
+        study.setDescription("study");
+        study.setStatus(Study.STATUS.planned);
+        study.setPatient(this.patientRepository.findById(patientId).get());
+        study.setDoctor(this.doctorRepository.findById(doctorId).get());
+        study.setRoom(this.roomRepository.findById(roomId).get());
+        study.setStartTime(startTime);
+        study.setEndTime(endTime);
+        return study;
+    }
+
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.Study;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link ScheduleOptimizer}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+public class ScheduleOptimizerTests {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 6);
+
+    @Autowired
+    private ScheduleOptimizer scheduleOptimizer;
+
+    @Autowired
+    private StudyRepository studyRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Test
+    public void shouldStorePlannedStudies() {
+        int studies = studyRepository.findByPatientId(1).size();
+        OptimizedSchedule schedule = scheduleOptimizer.optimize(Arrays.asList(
+            new StudyRequest(1, 1, "MRT", DAY, 45),
+            new StudyRequest(1, null, "CT", DAY, null),
+            new StudyRequest(99, null, "CT", DAY, null)));
+
+        scheduleOptimizer.save(schedule);
+
+        assertThat(schedule.isSaved()).isTrue();
+        assertThat(schedule.getAssignments()).hasSize(2);
+        assertThat(schedule.getAssignments().get(1).getEndTime()).
+            isEqualTo(schedule.getAssignments().get(1).getStartTime().plusMinutes(30));
+        assertThat(schedule.getRejections()).extracting(OptimizedSchedule.Rejection::getMessage).
+            containsExactly("patientId: unknown patient 99");
+        List<Study> stored = studyRepository.findByPatientId(1);
+        assertThat(stored).hasSize(studies + 2);
+        assertThat(stored).filteredOn(study -> study.getStartTime().toLocalDate().equals(DAY)).
+            extracting(Study::getStatus).containsOnly(Study.STATUS.planned);
+    }
+
+    @Test
+    public void shouldNotStorePlanOvertakenByAnotherStudy() {
+        OptimizedSchedule schedule = scheduleOptimizer.optimize(Arrays.asList(new StudyRequest(2, 2, "MRT", DAY, 60)));
+        Assignment assignment = schedule.getAssignments().get(0);
+        Study study = new Study();
+        study.setPatient(patientRepository.getOne(3));
+        study.setDoctor(doctorRepository.getOne(2));
+        study.setRoom(roomRepository.getOne(5));
+        study.setDescription("X-ray");
+        study.setStatus(Study.STATUS.planned);
+        study.setStartTime(assignment.getStartTime());
+        studyRepository.save(study);
+
+        assertThatThrownBy(() -> scheduleOptimizer.save(schedule)).isInstanceOf(ScheduleConflictException.class);
+        assertThat(schedule.isSaved()).isFalse();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.optimizer;
+
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link SchedulePlanner}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class SchedulePlannerTests {
+
+    private static final LocalDate DAY = LocalDate.of(2019, 4, 22);
+    private static final LocalDateTime EIGHT = DAY.atTime(8, 0);
+
+    private StudyIntervalIndex index;
+    private SchedulePlanner planner;
+
+    @Before
+    public void setup() {
+        index = new StudyIntervalIndex();
+        planner = new SchedulePlanner(index, LocalTime.of(8, 0), LocalTime.of(10, 0), Duration.ofMinutes(15));
+    }
+
+    @Test
+    public void shouldPackRequestsAroundStoredStudies() {
+        index.reload(Collections.singletonList(new StudyInterval(1, 9, 1, 1, EIGHT, EIGHT.plusMinutes(50))));
+
+        OptimizedSchedule schedule = planner.plan(Arrays.asList(
+            new StudyRequest(1, 1, "MRT", DAY, 60),
+            new StudyRequest(2, null, "CT", DAY, 30),
+            new StudyRequest(1, null, "X-ray", DAY, 30)),
+            Arrays.asList(1, 2), Arrays.asList(1, 2), ids(1, 2));
+
+        assertThat(schedule.getRejections()).isEmpty();
+        assertThat(schedule.getAssignments()).extracting(Assignment::getRequest).containsExactly(0, 1, 2);
+        // the stored study occupies room 1 until 09:00 after rounding, doctor 1 continues there
+        assertThat(schedule.getAssignments()).extracting(Assignment::getStartTime).containsExactly(
+            EIGHT.plusMinutes(60), EIGHT, EIGHT.plusMinutes(30));
+        assertThat(schedule.getAssignments()).extracting(Assignment::getRoomId).containsExactly(1, 2, 2);
+        assertThat(schedule.getAssignments()).extracting(Assignment::getDoctorId).containsExactly(1, 2, 2);
+        assertThat(schedule.getAssignments().get(0).getEndTime()).isEqualTo(EIGHT.plusMinutes(120));
+        assertThat(schedule.getRoomUtilization()).isEqualTo(0.75);
+        assertConflictFree(schedule);
+    }
+
+    @Test
+    public void shouldRejectInvalidAndUnplaceableRequests() {
+        OptimizedSchedule schedule = planner.plan(Arrays.asList(
+            new StudyRequest(1, null, "MRT", DAY, 90),
+            new StudyRequest(1, null, "CT", DAY, 60),
+            new StudyRequest(3, null, "CT", DAY, 30),
+            new StudyRequest(1, 7, "CT", DAY, 30),
+            new StudyRequest(1, null, "CT", DAY, 150),
+            new StudyRequest(1, null, "", DAY, 30),
+            new StudyRequest(1, null, "CT", null, 30)),
+            Arrays.asList(1, 2), Arrays.asList(1, 2), ids(1, 2));
+
+        assertThat(schedule.getAssignments()).extracting(Assignment::getRequest).containsExactly(0);
+        assertThat(schedule.getRejections()).extracting(OptimizedSchedule.Rejection::getRequest).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(schedule.getRejections()).extracting(OptimizedSchedule.Rejection::getMessage).containsExactly(
+            "no free doctor and room for the patient on 2019-04-22", "patientId: unknown patient 3",
+            "doctorId: unknown doctor 7", "minutes: longer than the working day", "description: is required",
+            "day: is required");
+    }
+
+    @Test
+    public void shouldMoveStudyToPlaceAnotherRequest() {
+        // the greedy pass puts the flexible request at 08:00 with doctor 1, then doctor 1's own request
+        // only fits after moving the flexible one to doctor 2
+        planner = new SchedulePlanner(index, LocalTime.of(8, 0), LocalTime.of(9, 0), Duration.ofMinutes(15));
+        index.reload(Collections.singletonList(new StudyInterval(1, 9, 2, 9, EIGHT.plusMinutes(30), EIGHT.plusMinutes(60))));
+
+        OptimizedSchedule schedule = planner.plan(Arrays.asList(
+            new StudyRequest(1, null, "MRT", DAY, 30),
+            new StudyRequest(2, 1, "CT", DAY, 15),
+            new StudyRequest(3, 1, "CT", DAY, 15),
+            new StudyRequest(4, 1, "CT", DAY, 15)),
+            Arrays.asList(1, 2), Arrays.asList(1, 2), ids(1, 2, 3, 4));
+
+        assertThat(schedule.getRejections()).isEmpty();
+        assertThat(schedule.getAssignments().get(0).getDoctorId()).isEqualTo(2);
+        assertConflictFree(schedule);
+    }
+
+    @Test
+    public void shouldPlanManyDaysWithoutConflicts() {
+        planner = new SchedulePlanner(index, LocalTime.of(8, 0), LocalTime.of(18, 0), Duration.ofMinutes(15));
+        Random random = new Random(42);
+        List<StudyRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            requests.add(new StudyRequest(random.nextInt(500), random.nextInt(10) == 0 ? random.nextInt(20) : null,
+                "study " + i, DAY.plusDays(random.nextInt(5)), 15 * (1 + random.nextInt(4))));
+        }
+        List<Integer> all = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+
+        OptimizedSchedule schedule = planner.plan(requests, all.subList(0, 20), all.subList(0, 20), new HashSet<>(all));
+
+        assertThat(schedule.getAssignments().size() + schedule.getRejections().size()).isEqualTo(requests.size());
+        assertThat(schedule.getAssignments().size()).isGreaterThan(900);
+        assertConflictFree(schedule);
+    }
+
+    private void assertConflictFree(OptimizedSchedule schedule) {
+        for (Assignment assignment : schedule.getAssignments()) {
+            StudyInterval interval = new StudyInterval(-1 - assignment.getRequest(), assignment.getPatientId(),
+                assignment.getDoctorId(), assignment.getRoomId(), assignment.getStartTime(), assignment.getEndTime());
+            assertThat(index.isIntersecting(interval)).as(assignment.toString()).isFalse();
+            index.put(interval);
+        }
+    }
+
+    private static Set<Integer> ids(Integer... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static com.caresyntax.studyscheduler.schedule.OccupancySummary.Resource.doctor;
+import static com.caresyntax.studyscheduler.schedule.OccupancySummary.Resource.room;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link OccupancySummary}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class OccupancySummaryTests {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2019, 4, 22, 9, 0);
+    private static final LocalDate MONDAY = NINE.toLocalDate();
+
+    private StudyIntervalIndex index;
+    private OccupancySummary summary;
+
+    @Before
+    public void setup() {
+        index = new StudyIntervalIndex();
+        index.reload(Collections.singletonList(new StudyInterval(1, 1, 1, 1, NINE, NINE.plusHours(1))));
+        summary = new OccupancySummary(index);
+    }
+
+    @Test
+    public void shouldLoadSummaryFromIndex() {
+        assertThat(summary.getDay(room, 1, MONDAY)).isEqualTo(new DaySummary(MONDAY, 1, 60));
+        assertThat(summary.getDay(doctor, 1, MONDAY)).isEqualTo(new DaySummary(MONDAY, 1, 60));
+        assertThat(summary.getDay(room, 2, MONDAY).isEmpty()).isTrue();
+        assertThat(summary.getDays(room, 1, MONDAY.minusDays(1), 3)).extracting(DaySummary::getStudies).
+            containsExactly(0, 1, 0);
+    }
+
+    @Test
+    public void shouldFollowChangesOfStudies() {
+        index.put(new StudyInterval(2, 2, 1, 1, NINE.plusHours(2), NINE.plusHours(2).plusMinutes(30)));
+        assertThat(summary.getDay(room, 1, MONDAY)).isEqualTo(new DaySummary(MONDAY, 2, 90));
+
+        index.put(new StudyInterval(2, 2, 1, 3, NINE.plusDays(1), NINE.plusDays(1).plusMinutes(45)));
+        assertThat(summary.getDay(room, 1, MONDAY)).isEqualTo(new DaySummary(MONDAY, 1, 60));
+        assertThat(summary.getDay(room, 3, MONDAY.plusDays(1))).isEqualTo(new DaySummary(MONDAY.plusDays(1), 1, 45));
+        assertThat(summary.getDay(doctor, 1, MONDAY.plusDays(1))).isEqualTo(new DaySummary(MONDAY.plusDays(1), 1, 45));
+
+        index.remove(1);
+        assertThat(summary.getDay(room, 1, MONDAY).isEmpty()).isTrue();
+        assertThat(summary.getDay(doctor, 1, MONDAY).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldSplitStudiesOverMidnight() {
+        LocalDateTime late = MONDAY.atTime(23, 0);
+        index.put(new StudyInterval(2, 2, 2, 2, late, late.plusHours(2)));
+
+        assertThat(summary.getDays(room, 2, MONDAY, 3)).containsExactly(
+            new DaySummary(MONDAY, 1, 60), new DaySummary(MONDAY.plusDays(1), 1, 60), DaySummary.empty(MONDAY.plusDays(2)));
+    }
+
+    @Test
+    public void shouldRebuildOnReload() {
+        index.reload(Collections.singletonList(new StudyInterval(5, 1, 4, 4, NINE, NINE.plusMinutes(20))));
+
+        assertThat(summary.getDay(room, 1, MONDAY).isEmpty()).isTrue();
+        assertThat(summary.getDay(room, 4, MONDAY)).isEqualTo(new DaySummary(MONDAY, 1, 20));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link ReservationLockManager}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class ReservationLockManagerTests {
+
+    private static final int THREADS = 8;
+
+    private SimpleMeterRegistry registry;
+    private ExecutorService executor;
+    private ReservationLockManager locks;
+
+    @Before
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        executor = Executors.newFixedThreadPool(THREADS);
+        locks = new ReservationLockManager(64);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    public void shouldHoldUnrelatedReservationsAtOnce() throws Exception {
+        CyclicBarrier allInside = new CyclicBarrier(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int id = i + 1;
+            results.add(executor.submit(() -> {
+                try (ReservationLockManager.Reservation ignored = locks.reserve(id, id, id)) {
+                    allInside.await(10, TimeUnit.SECONDS);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) result.get();
+
+        assertThat(contended("doctor")).isZero();
+        assertThat(contended("room")).isZero();
+    }
+
+    @Test
+    public void shouldSerializeReservationsOfSameDoctor() throws Exception {
+        int[] booked = new int[1];
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int id = i + 1;
+            results.add(executor.submit(() -> {
+                for (int n = 0; n < 10_000; n++) {
+                    try (ReservationLockManager.Reservation ignored = locks.reserve(id, 7, id)) {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        booked[0]++;
+                        inside.decrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) result.get();
+
+        assertThat(booked[0]).isEqualTo(THREADS * 10_000);
+        assertThat(maxInside.get()).isEqualTo(1);
+        assertThat(contended("patient")).isZero();
+    }
+
+    @Test
+    public void shouldRecordContention() throws Exception {
+        Future<?> waiting;
+        try (ReservationLockManager.Reservation ignored = locks.reserve(null, null, 3)) {
+            waiting = executor.submit(() -> locks.reserve(1, 2, 3 + 64).close());
+            while (contended("room") == 0) Thread.sleep(10);
+            assertThat(waiting.isDone()).isFalse();
+        }
+        waiting.get(10, TimeUnit.SECONDS);
+
+        assertThat(registry.get(SchedulingMetrics.RESERVATION_WAIT).tag("resource", "room").timer().count()).isEqualTo(1);
+        assertThat(contended("doctor")).isZero();
+    }
+
+    private double contended(String resource) {
+        return registry.get(SchedulingMetrics.RESERVATION_CONTENDED).tag("resource", resource).counter().count();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link RoomOccupancy}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class RoomOccupancyTests {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2019, 4, 22, 9, 0);
+
+    private StudyIntervalIndex index;
+    private RoomOccupancy occupancy;
+
+    @Before
+    public void setup() {
+        index = new StudyIntervalIndex();
+        index.reload(Collections.singletonList(new StudyInterval(1, 1, 1, 1, NINE, NINE.plusHours(1))));
+        occupancy = new RoomOccupancy(index, Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void shouldLoadOccupancyFromIndex() {
+        assertThat(occupancy.isFree(1, NINE.plusMinutes(30), NINE.plusHours(2))).isFalse();
+        assertThat(occupancy.isFree(1, NINE.plusHours(1), NINE.plusHours(2))).isTrue();
+        assertThat(occupancy.isFree(2, NINE, NINE.plusHours(1))).isTrue();
+        assertThat(occupancy.getOccupiedSlots(1, NINE.toLocalDate())).isEqualTo(12);
+    }
+
+    @Test
+    public void shouldRoundToWholeSlots() {
+        assertThat(occupancy.isFree(1, NINE.plusMinutes(62), NINE.plusMinutes(70))).isTrue();
+        assertThat(occupancy.isFree(1, NINE.minusMinutes(10), NINE.minusMinutes(2))).isTrue();
+
+        index.put(new StudyInterval(2, 2, 2, 3, NINE.plusMinutes(2), NINE.plusMinutes(8)));
+        assertThat(occupancy.isFree(3, NINE.plusMinutes(8), NINE.plusMinutes(9))).isFalse();
+        assertThat(occupancy.isFree(3, NINE.minusMinutes(5), NINE.plusMinutes(1))).isFalse();
+        assertThat(occupancy.isFree(3, NINE.plusMinutes(10), NINE.plusMinutes(15))).isTrue();
+    }
+
+    @Test
+    public void shouldFollowIndexChanges() {
+        index.put(new StudyInterval(2, 2, 2, 1, NINE.plusHours(1), NINE.plusHours(2)));
+        assertThat(occupancy.isFree(1, NINE.plusHours(1), NINE.plusHours(2))).isFalse();
+
+        // the overlapping study keeps its slots when the other one moves away
+        index.put(new StudyInterval(3, 3, 3, 1, NINE.plusMinutes(30), NINE.plusMinutes(90)));
+        index.remove(2);
+        assertThat(occupancy.isFree(1, NINE.plusMinutes(80), NINE.plusHours(2))).isFalse();
+        assertThat(occupancy.isFree(1, NINE.plusMinutes(90), NINE.plusHours(2))).isTrue();
+    }
+
+    @Test
+    public void shouldSpanMidnight() {
+        LocalDateTime lateEvening = NINE.withHour(23);
+        index.put(new StudyInterval(2, 2, 2, 2, lateEvening, lateEvening.plusHours(2)));
+        assertThat(occupancy.isFree(2, lateEvening.plusMinutes(90), lateEvening.plusHours(3))).isFalse();
+        assertThat(occupancy.isFree(2, lateEvening.plusHours(2), lateEvening.plusHours(3))).isTrue();
+        assertThat(occupancy.getOccupiedSlots(2, lateEvening.toLocalDate().plusDays(1))).isEqualTo(12);
+    }
+}
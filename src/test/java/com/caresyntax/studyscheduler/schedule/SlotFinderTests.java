@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link SlotFinder}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class SlotFinderTests {
+
+    private static final LocalDateTime EIGHT = LocalDateTime.of(2019, 4, 22, 8, 0);
+    private static final Duration HALF_HOUR = Duration.ofMinutes(30);
+
+    private StudyIntervalIndex index;
+    private SlotFinder finder;
+
+    @Before
+    public void setup() {
+        index = new StudyIntervalIndex();
+        index.reload(Arrays.asList(
+            // patient 1 is busy 08:00-08:30
+            new StudyInterval(1, 1, 9, 9, EIGHT, EIGHT.plusMinutes(30)),
+            // doctor 1 is busy 08:20-09:10
+            new StudyInterval(2, 8, 1, 8, EIGHT.plusMinutes(20), EIGHT.plusMinutes(70)),
+            // room 1 is busy 09:30-10:00
+            new StudyInterval(3, 7, 7, 1, EIGHT.plusMinutes(90), EIGHT.plusMinutes(120))));
+        finder = new SlotFinder(index, Duration.ofMinutes(15));
+    }
+
+    @Test
+    public void shouldMergeBusyIntervalsOfAllResources() {
+        List<Slot> slots = finder.findFreeSlots(1, 1, 1, null, HALF_HOUR, EIGHT, EIGHT.plusHours(4), 4);
+
+        // 09:10 is rounded up to 09:15, the gap until 09:30 is too short
+        assertThat(slots).containsExactly(
+            slot(EIGHT.plusMinutes(120)), slot(EIGHT.plusMinutes(150)), slot(EIGHT.plusMinutes(180)),
+            slot(EIGHT.plusMinutes(210)));
+    }
+
+    @Test
+    public void shouldOfferGapsBetweenStudies() {
+        List<Slot> slots = finder.findFreeSlots(2, 1, 2, null, Duration.ofMinutes(15), EIGHT, EIGHT.plusHours(2), 10);
+
+        assertThat(slots).extracting(Slot::getStartTime).containsExactly(
+            EIGHT, EIGHT.plusMinutes(75), EIGHT.plusMinutes(90), EIGHT.plusMinutes(105));
+    }
+
+    @Test
+    public void shouldIgnoreEditedStudy() {
+        List<Slot> slots = finder.findFreeSlots(1, 2, 2, 1, HALF_HOUR, EIGHT, EIGHT.plusHours(1), 5);
+
+        assertThat(slots).containsExactly(slot(EIGHT), slot(EIGHT.plusMinutes(30)));
+    }
+
+    @Test
+    public void shouldBlockStartOfStudyWithoutLength() {
+        index.put(new StudyInterval(4, 5, 5, 5, EIGHT.plusMinutes(30), EIGHT.plusMinutes(30)));
+
+        List<Slot> slots = finder.findFreeSlots(5, 5, 5, null, Duration.ofMinutes(15), EIGHT, EIGHT.plusHours(1), 5);
+
+        assertThat(slots).extracting(Slot::getStartTime).containsExactly(
+            EIGHT, EIGHT.plusMinutes(15), EIGHT.plusMinutes(45));
+    }
+
+    @Test
+    public void shouldRoundWindowStartAndKeepSlotsInsideWindow() {
+        List<Slot> slots = finder.findFreeSlots(3, 3, 3, null, HALF_HOUR, EIGHT.plusMinutes(1), EIGHT.plusMinutes(75), 5);
+
+        assertThat(slots).containsExactly(slot(EIGHT.plusMinutes(15)), slot(EIGHT.plusMinutes(45)));
+    }
+
+    @Test
+    public void shouldOfferFoundSlotsWithoutConflicts() {
+        for (Slot slot : finder.findFreeSlots(1, 1, 1, null, HALF_HOUR, EIGHT, EIGHT.plusHours(4), 20)) {
+            assertThat(index.isIntersecting(new StudyInterval(null, 1, 1, 1, slot.getStartTime(), slot.getEndTime())))
+                .as(slot.toString()).isFalse();
+        }
+    }
+
+    private static Slot slot(LocalDateTime start) {
+        return new Slot(start, start.plus(HALF_HOUR));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.schedule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link StudyIntervalIndex}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class StudyIntervalIndexTests {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2019, 4, 22, 9, 0);
+
+    private StudyIntervalIndex index;
+
+    @Before
+    public void setup() {
+        index = new StudyIntervalIndex();
+        index.reload(Collections.singletonList(interval(1, 1, 1, 1, NINE, NINE.plusHours(1))));
+    }
+
+    @Test
+    public void shouldDetectOverlapForSameDoctor() {
+        assertThat(index.isIntersecting(interval(null, 2, 1, 2, NINE.plusMinutes(30), NINE.plusHours(2)))).isTrue();
+    }
+
+    @Test
+    public void shouldDetectOverlapForSameRoomAndPatient() {
+        assertThat(index.isIntersecting(interval(null, 2, 2, 1, NINE.minusMinutes(30), NINE.plusMinutes(1)))).isTrue();
+        assertThat(index.isIntersecting(interval(null, 1, 2, 2, NINE.plusMinutes(59), null))).isTrue();
+    }
+
+    @Test
+    public void shouldAllowBackToBackStudies() {
+        assertThat(index.isIntersecting(interval(null, 1, 1, 1, NINE.plusHours(1), NINE.plusHours(2)))).isFalse();
+        assertThat(index.isIntersecting(interval(null, 1, 1, 1, NINE.minusHours(1), NINE))).isFalse();
+    }
+
+    @Test
+    public void shouldTreatSameStartTimeAsIntersection() {
+        index.put(interval(2, 3, 3, 3, NINE.plusDays(1), null));
+        assertThat(index.isIntersecting(interval(null, 3, 4, 4, NINE.plusDays(1), null))).isTrue();
+        assertThat(index.isIntersecting(interval(null, 3, 4, 4, NINE.plusDays(1).plusMinutes(1), null))).isFalse();
+    }
+
+    @Test
+    public void shouldIgnoreOwnStudy() {
+        assertThat(index.isIntersecting(interval(1, 1, 1, 1, NINE.plusMinutes(15), NINE.plusMinutes(45)))).isFalse();
+    }
+
+    @Test
+    public void shouldAnswerLikeLinearScan() {
+        Random random = new Random(42);
+        Map<Integer, StudyInterval> stored = new HashMap<>();
+        index.reload(Collections.emptyList());
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime start = NINE.plusMinutes(random.nextInt(2000));
+            // a few long studies, some without length
+            int minutes = random.nextInt(20) == 0 ? random.nextInt(1500) : random.nextInt(4) * 15;
+            StudyInterval interval = interval(random.nextInt(300), 1, 1, 1, start, start.plusMinutes(minutes));
+            if (random.nextInt(3) == 0) {
+                index.remove(interval.getStudyId());
+                stored.remove(interval.getStudyId());
+            } else {
+                index.put(interval);
+                stored.put(interval.getStudyId(), interval);
+            }
+
+            StudyInterval candidate = interval(random.nextBoolean() ? null : random.nextInt(300), 1, 1, 1,
+                NINE.plusMinutes(random.nextInt(2000)), null).withDefaultDuration(Duration.ofMinutes(random.nextInt(3) * 20));
+            boolean expected = stored.values().stream().
+                anyMatch(other -> !other.getStudyId().equals(candidate.getStudyId()) && other.intersects(candidate));
+            assertThat(index.isIntersecting(candidate)).as(candidate.toString()).isEqualTo(expected);
+
+            LocalDateTime from = candidate.getStart();
+            LocalDateTime to = from.plusMinutes(60);
+            List<Integer> window = stored.values().stream().
+                filter(other -> other.getStart().isBefore(to) && (other.getEnd().isAfter(from) || !other.getStart().isBefore(from))).
+                sorted(Comparator.comparing(StudyInterval::getStart).thenComparing(StudyInterval::getStudyId)).
+                map(StudyInterval::getStudyId).
+                collect(Collectors.toList());
+            assertThat(index.findRoomIntervals(1, from, to)).extracting(StudyInterval::getStudyId).isEqualTo(window);
+        }
+    }
+
+    @Test
+    public void shouldMoveStudyOnUpdate() {
+        index.put(interval(1, 1, 1, 1, NINE.plusDays(1), NINE.plusDays(1).plusHours(1)));
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.isIntersecting(interval(null, 1, 1, 1, NINE, NINE.plusHours(1)))).isFalse();
+
+        index.remove(1);
+        assertThat(index.isIntersecting(interval(null, 1, 1, 1, NINE.plusDays(1), null))).isFalse();
+    }
+
+    private static StudyInterval interval(Integer studyId, Integer patientId, Integer doctorId, Integer roomId,
+                                          LocalDateTime start, LocalDateTime end) {
+        return new StudyInterval(studyId, patientId, doctorId, roomId, start, end);
+    }
+}
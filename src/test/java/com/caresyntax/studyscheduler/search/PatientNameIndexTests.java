@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.search;
+
+import com.caresyntax.studyscheduler.model.Patient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link PatientNameIndex}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class PatientNameIndexTests {
+
+    private PatientNameIndex index;
+
+    @Before
+    public void setup() {
+        index = new PatientNameIndex();
+        index.reload(Arrays.asList(
+            new PatientSummary(1, "George Franklin", Patient.SEX.male, LocalDate.of(1980, 9, 7)),
+            new PatientSummary(2, "Betty Davis", Patient.SEX.female, LocalDate.of(1975, 1, 31)),
+            new PatientSummary(3, "Eduardo Rodríguez", Patient.SEX.male, LocalDate.of(1990, 3, 12)),
+            new PatientSummary(4, "Frank George", Patient.SEX.male, LocalDate.of(1966, 5, 20)),
+            new PatientSummary(5, "Georgette Davis", Patient.SEX.female, null)));
+    }
+
+    @Test
+    public void shouldRankPrefixBeforeWordBeforeSubstring() {
+        assertThat(search("george", 10)).containsExactly(1, 5, 4);
+        assertThat(search("FRANK", 10)).containsExactly(4, 1);
+        assertThat(search("eorg", 10)).containsExactly(4, 1, 5);
+    }
+
+    @Test
+    public void shouldIgnoreCaseAccentsAndSpaces() {
+        assertThat(search("  RODRIGUEZ ", 10)).containsExactly(3);
+        assertThat(search("betty   davis", 10)).containsExactly(2);
+    }
+
+    @Test
+    public void shouldMatchShortQueriesAndLimitResults() {
+        assertThat(search("da", 10)).containsExactly(2, 5);
+        assertThat(search("o", 10)).containsExactly(3, 4, 1, 5);
+        assertThat(search("", 2)).containsExactly(2, 3);
+        assertThat(search("davis", 1)).containsExactly(2);
+    }
+
+    @Test
+    public void shouldSortAndPageMatches() {
+        Comparator<PatientSummary> byBirthDate = Comparator.comparing(PatientSummary::getBirthDate,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+        PatientNameIndex.Hits hits = index.search("", byBirthDate, 0, 2);
+        assertThat(hits.getIds()).containsExactly(4, 2);
+        assertThat(hits.getTotal()).isEqualTo(5);
+        assertThat(index.search("", byBirthDate, 2, 2).getIds()).containsExactly(1, 3);
+        assertThat(index.search("", byBirthDate, 4, 2).getIds()).containsExactly(5);
+        assertThat(index.search("", byBirthDate, 6, 2).getIds()).isEmpty();
+
+        hits = index.search("davis", byBirthDate.reversed(), 0, 1);
+        assertThat(hits.getIds()).containsExactly(5);
+        assertThat(hits.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldFindSimilarNames() {
+        assertThat(search("Daviss", 10)).isEmpty();
+        assertThat(index.searchSimilar("Daviss", 10)).startsWith(2, 5);
+        assertThat(index.searchSimilar("Gorge Franklyn", 10)).startsWith(1);
+        assertThat(index.searchSimilar("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    public void shouldReplaceRenamedPatient() {
+        index.put(new PatientSummary(2, "Betty Smith", Patient.SEX.female, LocalDate.of(1975, 1, 31)));
+        assertThat(search("davis", 10)).containsExactly(5);
+        assertThat(search("smith", 10)).containsExactly(2);
+
+        index.remove(2);
+        assertThat(search("smith", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    private List<Integer> search(String query, int limit) {
+        return index.search(query, null, 0, limit).getIds();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.schedule.StudyInterval;
+import com.caresyntax.studyscheduler.schedule.StudyIntervalIndex;
+import com.caresyntax.studyscheduler.search.PatientNameIndex;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link IndexSnapshot}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+public class IndexSnapshotTests {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2019, 4, 22, 9, 0);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Path file;
+    private StudyIntervalIndex intervalIndex;
+    private PatientNameIndex patientNameIndex;
+    private IndexSnapshot snapshot;
+
+    @Before
+    public void setup() throws IOException {
+        file = folder.getRoot().toPath().resolve("data").resolve("index.snapshot");
+        intervalIndex = new StudyIntervalIndex();
+        intervalIndex.reload(Arrays.asList(
+            new StudyInterval(1, 1, 2, 3, NINE, NINE.plusHours(1)),
+            new StudyInterval(2, 2, null, 4, NINE.plusSeconds(30), NINE.plusSeconds(30))));
+        patientNameIndex = new PatientNameIndex();
+        patientNameIndex.reload(Arrays.asList(
+            new PatientSummary(1, "George Franklin", Patient.SEX.male, LocalDate.of(1955, 11, 25)),
+            new PatientSummary(2, "Betty Davis", null, null)));
+        snapshot = snapshot(intervalIndex, patientNameIndex);
+    }
+
+    @Test
+    public void shouldRestoreSavedIndexes() {
+        snapshot.save();
+        assertThat(file).exists();
+
+        StudyIntervalIndex restoredIntervals = new StudyIntervalIndex();
+        PatientNameIndex restoredPatients = new PatientNameIndex();
+        IndexSnapshot restoring = snapshot(restoredIntervals, restoredPatients);
+        assertThat(restoring.restore()).isTrue();
+        assertThat(file).doesNotExist();
+        assertThat(restoring.restore()).isTrue();
+
+        assertThat(restoredIntervals.getIntervals()).usingFieldByFieldElementComparator().
+            containsExactlyInAnyOrderElementsOf(intervalIndex.getIntervals());
+        assertThat(restoredPatients.getSummaries()).usingFieldByFieldElementComparator().
+            containsExactlyInAnyOrderElementsOf(patientNameIndex.getSummaries());
+        assertThat(restoredPatients.searchSimilar("frank", 1)).containsExactly(1);
+    }
+
+    @Test
+    public void shouldIgnoreSnapshotOfAnotherDatabaseState() {
+        snapshot.save();
+        jdbcTemplate.update("insert into patient (name) values ('Jean Coleman')");
+
+        assertThat(snapshot(new StudyIntervalIndex(), new PatientNameIndex()).restore()).isFalse();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    public void shouldIgnoreSnapshotOfRowsUpdatedOffline() {
+        jdbcTemplate.update("insert into study (patient_id, status, start_time, end_time, doctor_id, room_id) " +
+            "values (1, 0, '2019-06-03 09:00:00', '2019-06-03 10:00:00', 1, 1)");
+        snapshot.save();
+        jdbcTemplate.update("update study set start_time = dateadd('HOUR', 1, start_time)");
+
+        assertThat(snapshot(new StudyIntervalIndex(), new PatientNameIndex()).restore()).isFalse();
+
+        snapshot.save();
+        jdbcTemplate.update("update patient set name = 'Georgina Franklin' where name = 'George Franklin'");
+
+        assertThat(snapshot(new StudyIntervalIndex(), new PatientNameIndex()).restore()).isFalse();
+    }
+
+    @Test
+    public void shouldDropSnapshotChangedAfterSave() {
+        snapshot.save();
+        intervalIndex.put(new StudyInterval(3, 1, 2, 3, NINE.plusHours(2), NINE.plusHours(3)));
+        assertThat(file).doesNotExist();
+
+        snapshot.save();
+        patientNameIndex.put(new PatientSummary(3, "Jean Coleman", Patient.SEX.female, null));
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    public void shouldIgnoreUnreadableSnapshot() throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1, 2, 3});
+
+        assertThat(snapshot(new StudyIntervalIndex(), new PatientNameIndex()).restore()).isFalse();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    public void shouldDoNothingWithoutFile() {
+        IndexSnapshot disabled = new IndexSnapshot("", jdbcTemplate, intervalIndex, patientNameIndex, Duration.ofMinutes(30));
+        disabled.save();
+        assertThat(disabled.restore()).isFalse();
+        assertThat(folder.getRoot().list()).isEmpty();
+    }
+
+    private IndexSnapshot snapshot(StudyIntervalIndex intervalIndex, PatientNameIndex patientNameIndex) {
+        return new IndexSnapshot(file.toString(), jdbcTemplate, intervalIndex, patientNameIndex, Duration.ofMinutes(30));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests which beans {@link LazyInitializationPostProcessor} leaves to be created on first use.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public class LazyInitializationPostProcessorTests {
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.addBeanFactoryPostProcessor(new LazyInitializationPostProcessor());
+        context.registerBean("lazyComponent", LazyComponent.class);
+        context.registerBean("eagerComponent", EagerComponent.class);
+        context.registerBean("infrastructureComponent", LazyComponent.class,
+            definition -> definition.setRole(BeanDefinition.ROLE_INFRASTRUCTURE));
+        context.register(Beans.class);
+        context.refresh();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void shouldCreateBeansOnFirstUse() {
+        assertThat(isCreated("lazyComponent")).isFalse();
+        assertThat(isCreated("lazyBean")).isFalse();
+
+        context.getBean("lazyComponent");
+
+        assertThat(isCreated("lazyComponent")).isTrue();
+    }
+
+    @Test
+    public void shouldCreateBeansAnnotatedNotLazyAtStartup() {
+        assertThat(isCreated("eagerComponent")).isTrue();
+        assertThat(isCreated("eagerBean")).isTrue();
+    }
+
+    @Test
+    public void shouldCreateInfrastructureBeansAtStartup() {
+        assertThat(isCreated("infrastructureComponent")).isTrue();
+    }
+
+    private boolean isCreated(String name) {
+        return context.getBeanFactory().containsSingleton(name);
+    }
+
+    static class LazyComponent {
+    }
+
+    @Lazy(false)
+    static class EagerComponent {
+    }
+
+    @Configuration
+    static class Beans {
+
+        @Bean
+        public StringBuilder lazyBean() {
+            return new StringBuilder();
+        }
+
+        @Bean
+        @Lazy(false)
+        public StringBuilder eagerBean() {
+            return new StringBuilder();
+        }
+    }
+}
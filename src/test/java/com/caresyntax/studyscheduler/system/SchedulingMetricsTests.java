@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.Study;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the scheduling meters and the statement counter.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+public class SchedulingMetricsTests {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private StudyRepository studyRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Before
+    public void setup() {
+        Metrics.addRegistry(registry);
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    public void shouldTimeConflictChecksByOutcome() {
+        LocalDateTime start = LocalDateTime.of(2019, 4, 24, 9, 0);
+        studyRepository.save(newStudy(start));
+
+        assertThat(studyRepository.isExistIntersectingStudies(newStudy(start.plusMinutes(10)))).isTrue();
+        assertThat(studyRepository.isExistIntersectingStudies(newStudy(start.plusHours(2)))).isFalse();
+        assertThat(studyRepository.isExistIntersectingStudies(newStudy(start.plusHours(3)))).isFalse();
+
+        assertThat(registry.get(SchedulingMetrics.CONFLICT_CHECK).tag("outcome", "conflict").timer().count()).isEqualTo(1);
+        assertThat(registry.get(SchedulingMetrics.CONFLICT_CHECK).tag("outcome", "free").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldTimePatientSearches() {
+        patientRepository.findByName("George", PageRequest.of(0, 20));
+        patientRepository.findSummariesByName("Nobody Known", PageRequest.of(0, 20));
+
+        assertThat(registry.get(SchedulingMetrics.PATIENT_SEARCH).tag("outcome", "found").timer().count()).isEqualTo(1);
+        assertThat(registry.get(SchedulingMetrics.PATIENT_SEARCH).tag("outcome", "empty").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCountStatements() {
+        StatementCounter.reset();
+        patientRepository.findExistingIds(Arrays.asList(1, 2));
+        patientRepository.count();
+        assertThat(StatementCounter.getCount()).isEqualTo(2);
+        assertThat(StatementCounter.getNanos()).isPositive();
+
+        StatementCounter.reset();
+        assertThat(StatementCounter.getCount()).isZero();
+        assertThat(StatementCounter.getNanos()).isZero();
+    }
+
+    private Study newStudy(LocalDateTime startTime) {
+        Study study = new Study();
+        study.setDescription("study");
+        study.setStatus(Study.STATUS.planned);
+        study.setPatient(patientRepository.findById(1).get());
+        study.setDoctor(doctorRepository.findById(1).get());
+        study.setRoom(roomRepository.findById(1).get());
+        study.setStartTime(startTime);
+        return study;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.system;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matchers of the SQL statements executed by a request performed with MockMvc.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+public final class StatementMatchers {
+
+    private StatementMatchers() {
+    }
+
+    /**
+     * Fails if the request executed more statements than the given budget, which catches N+1 regressions.
+     *
+     * @param budget maximum number of statements
+     */
+    public static ResultMatcher maxStatements(int budget) {
+        return result -> {
+            Object count = result.getRequest().getAttribute(StatementCountInterceptor.STATEMENTS);
+            assertThat(count).as("statements of %s", result.getRequest().getRequestURI()).isNotNull();
+            assertThat((Integer) count).as("statements of %s", result.getRequest().getRequestURI()).
+                isLessThanOrEqualTo(budget);
+        };
+    }
+}
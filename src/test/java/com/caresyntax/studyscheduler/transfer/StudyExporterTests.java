@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.caresyntax.studyscheduler.dao.StudyFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link StudyExporter}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+public class StudyExporterTests {
+
+    @Autowired
+    private StudyExporter studyExporter;
+
+    @Autowired
+    private StudyImporter studyImporter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void setup() throws IOException {
+        ImportResult result = studyImporter.importStudies(new CsvStudyRecordReader(new StringReader(
+            "patientId,doctorId,roomId,startTime,endTime,status,description\n" +
+                "1,1,1,2030-03-04 08:00,2030-03-04 08:30,planned,\"X-ray, \"\"chest\"\"\"\n" +
+                "2,2,2,2030-03-04 09:00,2030-03-04 09:30,finished,MRT\n" +
+                "3,1,3,2030-03-05 08:00,2030-03-05 08:30,planned,CT\n")));
+        assertThat(result.getImported()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldExportFilteredStudiesAsCsv() throws IOException {
+        StudyFilter filter = new StudyFilter();
+        filter.setFrom(LocalDate.of(2030, 3, 4));
+        filter.setTo(LocalDate.of(2030, 3, 5));
+        filter.setDoctorId(1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = studyExporter.exportStudies(filter, ExportFormat.csv, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo(String.join(",", StudyExporter.STUDY_COLUMNS));
+        assertThat(lines[1]).matches("\\d+,1,1,1,2030-03-04 08:00,2030-03-04 08:30,planned,\"X-ray, \"\"chest\"\"\"," +
+            "George Franklin,James Carter,room 1");
+        assertThat(lines[2]).matches("\\d+,3,1,3,2030-03-05 08:00,2030-03-05 08:30,planned,CT,Eduardo Rodriquez,James Carter,room 3");
+    }
+
+    @Test
+    public void shouldReimportExportedStudies() throws IOException {
+        StudyFilter filter = new StudyFilter();
+        filter.setFrom(LocalDate.of(2030, 3, 4));
+        filter.setTo(LocalDate.of(2030, 3, 5));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        studyExporter.exportStudies(filter, ExportFormat.csv, output);
+
+        ImportResult result = studyImporter.importStudies(new CsvStudyRecordReader(new StringReader(
+            output.toString(StandardCharsets.UTF_8.name()))));
+
+        assertThat(result.getImported()).as("finished studies do not occupy the room").isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getLine).containsExactly(2L, 4L);
+        assertThat(result.getErrors()).allSatisfy(error -> assertThat(error.getMessage()).contains("overlaps"));
+    }
+
+    @Test
+    public void shouldReimportExportedMultiLineDescription() throws IOException {
+        ImportResult imported = studyImporter.importStudies(new JsonStudyRecordReader(new ByteArrayInputStream((
+            "{\"patientId\": 1, \"doctorId\": 4, \"roomId\": 4, \"startTime\": \"2030-03-06 08:00\", " +
+                "\"description\": \"Echo\\nfollow-up, \\\"fasting\\\"\"}\n" +
+                "{\"patientId\": 2, \"doctorId\": 5, \"roomId\": 5, \"startTime\": \"2030-03-06 09:00\", \"description\": \"CT\"}\n").getBytes(StandardCharsets.UTF_8)), objectMapper));
+        assertThat(imported.getImported()).isEqualTo(2);
+        StudyFilter filter = new StudyFilter();
+        filter.setFrom(LocalDate.of(2030, 3, 6));
+        filter.setTo(LocalDate.of(2030, 3, 6));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        studyExporter.exportStudies(filter, ExportFormat.csv, output);
+        String csv = output.toString(StandardCharsets.UTF_8.name());
+
+        try (CsvStudyRecordReader reader = new CsvStudyRecordReader(new StringReader(csv))) {
+            StudyRecord first = reader.read();
+            assertThat(first.getLine()).isEqualTo(2);
+            assertThat(first.getDescription()).isEqualTo("Echo\nfollow-up, \"fasting\"");
+            assertThat(reader.read().getLine()).isEqualTo(4);
+            assertThat(reader.read()).isNull();
+        }
+        ImportResult result = studyImporter.importStudies(new CsvStudyRecordReader(new StringReader(csv)));
+        assertThat(result.getFailure()).isNull();
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getLine).containsExactly(2L, 4L);
+        assertThat(result.getErrors()).allSatisfy(error -> assertThat(error.getMessage()).contains("overlaps"));
+    }
+
+    @Test
+    public void shouldExportStudiesAsNdjson() throws IOException {
+        StudyFilter filter = new StudyFilter();
+        filter.setFrom(LocalDate.of(2030, 3, 4));
+        filter.setTo(LocalDate.of(2030, 3, 4));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        studyExporter.exportStudies(filter, ExportFormat.ndjson, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode study = objectMapper.readTree(lines[1]);
+        assertThat(study.get("patientId").isNumber()).isTrue();
+        assertThat(study.get("patientId").asInt()).isEqualTo(2);
+        assertThat(study.get("status").asText()).isEqualTo("finished");
+        assertThat(study.get("roomName").asText()).isEqualTo("room 2");
+    }
+
+    @Test
+    public void shouldExportAllPatients() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = studyExporter.exportPatients(ExportFormat.csv, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).containsExactly("id,name,sex,birthDate", "1,George Franklin,male,1955-11-25",
+            "2,Betty Davis,female,1977-08-02", "3,Eduardo Rodriquez,male,1965-02-28");
+    }
+}
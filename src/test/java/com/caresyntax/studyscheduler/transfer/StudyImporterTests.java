@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.transfer;
+
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.Study;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link StudyImporter}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+public class StudyImporterTests {
+
+    @Autowired
+    private StudyImporter studyImporter;
+
+    @Autowired
+    private StudyRepository studyRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void shouldImportValidRowsAndReportOthers() {
+        int studies = studyRepository.findByPatientId(1).size();
+        ImportResult result = importCsv("patientId,doctorId,roomId,startTime,endTime,status,description\n" +
+            "1,1,1,2030-01-07 08:00,2030-01-07 08:30,planned,MRT\n" +
+            "1,2,2,2030-01-07 08:15,2030-01-07 08:45,,CT\n" +
+            "2,1,3,2030-01-07 08:30,2030-01-07 09:00,planned,\"X-ray, chest\"\n" +
+            "2,99,3,2030-01-07 10:00,,planned,X-ray\n" +
+            "3,3,3,2030-01-07 12:00,2030-01-07 11:00,planned,X-ray\n" +
+            "3,3,3,7.1.2030 13:00,,planned,X-ray\n" +
+            "3,3,3,2030-01-07 13:00,,waiting,X-ray\n" +
+            "3,3,3,2030-01-07 13:00,,planned,\n");
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(6);
+        assertThat(result.getFailure()).isNull();
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getLine).containsExactly(3L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(result.getErrors().get(0).getMessage()).contains("overlaps");
+        assertThat(result.getErrors().get(1).getMessage()).contains("unknown doctor 99");
+        assertThat(studyRepository.findByPatientId(1)).hasSize(studies + 1);
+        assertThat(studyRepository.findByPatientId(2)).extracting(Study::getDescription).contains("X-ray, chest");
+    }
+
+    @Test
+    public void shouldRejectRowsOverlappingStoredStudies() {
+        importCsv("patientId,doctorId,roomId,startTime,endTime,description\n" +
+            "1,1,1,2030-02-04 08:00,2030-02-04 09:00,MRT\n");
+        ImportResult result = importCsv("description,startTime,roomId,doctorId,patientId\n" +
+            "CT,2030-02-04 08:30,1,2,2\n" +
+            "CT,2030-02-04 09:00,1,2,2\n");
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getLine).containsExactly(2L);
+    }
+
+    @Test
+    public void shouldImportJsonArrayAndLines() throws IOException {
+        ImportResult result = importJson("[\n" +
+            "{\"patientId\": 1, \"doctorId\": 1, \"roomId\": 1, \"startTime\": \"2030-03-04 08:00\", \"description\": \"MRT\"},\n" +
+            "{\"patientId\": 1, \"doctorId\": 1, \"roomId\": 1, \"startTime\": \"2030-03-04T08:10\", \"description\": \"MRT\"}\n" +
+            "]");
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getLine).containsExactly(3L);
+
+        result = importJson("{\"patientId\": \"2\", \"doctorId\": \"2\", \"roomId\": \"2\", \"startTime\": \"2030-03-04 10:00\", \"description\": \"CT\"}\n" +
+            "{\"patientId\": \"3\", \"doctorId\": \"3\", \"roomId\": \"3\", \"startTime\": \"2030-03-04 10:00\", \"description\": \"CT\"}\n");
+        assertThat(result.getImported()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldStopAtMalformedInput() {
+        ImportResult result = importCsv("patientId,doctorId,roomId,startTime,description\n" +
+            "1,1,1,2030-04-01 08:00,MRT\n" +
+            "1,1,1,2030-04-01 09:00,\"MRT\n" +
+            "1,1,1,2030-04-01 10:00,MRT\n");
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailure()).contains("Line 3");
+        assertThat(importCsv("patient,doctor\n").getFailure()).contains("Unknown column patient");
+    }
+
+    @Test
+    public void shouldImportManyChunks() {
+        StringBuilder csv = new StringBuilder("patientId,doctorId,roomId,startTime,endTime,description\n");
+        LocalDateTime start = LocalDateTime.of(2031, 1, 1, 0, 0);
+        int rows = StudyImporter.CHUNK_SIZE * 2 + 1;
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime time = start.plusMinutes(30 * i);
+            csv.append(1 + i % 3).append(',').append(1 + i % 6).append(',').append(1 + i % 5).append(',').
+                append(time.toString().replace('T', ' ')).append(',').
+                append(time.plusMinutes(10).toString().replace('T', ' ')).append(",Study ").append(i).append('\n');
+        }
+        ImportResult result = importCsv(csv.toString());
+
+        assertThat(result.getRejected()).isEqualTo(0);
+        assertThat(result.getImported()).isEqualTo(rows);
+    }
+
+    private ImportResult importCsv(String csv) {
+        return studyImporter.importStudies(new CsvStudyRecordReader(new StringReader(csv)));
+    }
+
+    private ImportResult importJson(String json) throws IOException {
+        return studyImporter.importStudies(new JsonStudyRecordReader(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), objectMapper));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.schedule.DaySummary;
+import com.caresyntax.studyscheduler.schedule.OccupancySummary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link CalendarApiController}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(CalendarApiController.class)
+@Import(ApiConfiguration.class)
+public class CalendarApiControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OccupancySummary occupancySummary;
+
+    @Test
+    public void testGetDays() throws Exception {
+        LocalDate day = LocalDate.of(2019, 4, 22);
+        given(this.occupancySummary.getDays(OccupancySummary.Resource.doctor, 2, day, 1)).
+            willReturn(Collections.singletonList(new DaySummary(day, 3, 90)));
+
+        mockMvc.perform(get("/api/v1/calendar/doctor/2").param("from", "2019-04-22").param("days", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].day").value("2019-04-22"))
+            .andExpect(jsonPath("$[0].studies").value(3))
+            .andExpect(jsonPath("$[0].bookedMinutes").value(90));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.search.PatientSummary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link PatientApiController}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(PatientApiController.class)
+@Import(ApiConfiguration.class)
+public class PatientApiControllerTests {
+
+    private static final PatientSummary GEORGE = new PatientSummary(1, "George Franklin", Patient.SEX.male,
+        LocalDate.of(1955, 11, 25));
+    private static final PatientSummary BETTY = new PatientSummary(2, "Betty Davis", Patient.SEX.female,
+        LocalDate.of(1977, 8, 2));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PatientRepository patientRepository;
+
+    @Test
+    public void testGetPatients() throws Exception {
+        given(this.patientRepository.findSummariesByName(eq("a"), any())).
+            willReturn(new PageImpl<>(Arrays.asList(GEORGE, BETTY), PageRequest.of(0, 2), 3));
+        mockMvc.perform(get("/api/v1/patients?name=a&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].name").value("George Franklin"))
+            .andExpect(jsonPath("$.items[0].birthDate").value("1955-11-25"))
+            .andExpect(jsonPath("$.items[0].studies").doesNotExist())
+            .andExpect(jsonPath("$.total").value(3))
+            .andExpect(jsonPath("$.next").value(endsWith("/api/v1/patients?name=a&size=2&page=1")));
+    }
+
+    @Test
+    public void testGetPatientFields() throws Exception {
+        given(this.patientRepository.findSummaryById(1)).willReturn(Optional.of(GEORGE));
+        mockMvc.perform(get("/api/v1/patients/{patientId}", 1).param("fields", "id, name"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(1))
+            .andExpect(jsonPath("$.name").value("George Franklin"))
+            .andExpect(jsonPath("$.sex").doesNotExist())
+            .andExpect(jsonPath("$.birthDate").doesNotExist());
+    }
+
+    @Test
+    public void testGetPatientNotModified() throws Exception {
+        given(this.patientRepository.findSummaryById(1)).willReturn(Optional.of(GEORGE));
+        String etag = mockMvc.perform(get("/api/v1/patients/{patientId}", 1))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/v1/patients/{patientId}", 1).header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testGetPatientNotFound() throws Exception {
+        given(this.patientRepository.findSummaryById(1)).willReturn(Optional.empty());
+        mockMvc.perform(get("/api/v1/patients/{patientId}", 1))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetPatientsUnsupportedSort() throws Exception {
+        given(this.patientRepository.findSummariesByName(any(), any())).willThrow(new IllegalArgumentException("id"));
+        mockMvc.perform(get("/api/v1/patients").param("sort", "id"))
+            .andExpect(status().isBadRequest());
+    }
+}
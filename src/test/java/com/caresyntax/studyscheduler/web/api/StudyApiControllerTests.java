@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.api;
+
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.Doctor;
+import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Room;
+import com.caresyntax.studyscheduler.model.Study;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link StudyApiController}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(StudyApiController.class)
+@Import(ApiConfiguration.class)
+public class StudyApiControllerTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2019, 4, 22, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudyRepository studyRepository;
+
+    @Test
+    public void testGetStudies() throws Exception {
+        given(this.studyRepository.findStudies(argThat(filter -> filter.getPatientId() == 1), isNull(), isNull(), eq(2))).
+            willReturn(Arrays.asList(StudyRow.of(study(10, START)), StudyRow.of(study(11, START.plusHours(1)))));
+        mockMvc.perform(get("/api/v1/studies?patientId=1&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].id").value(10))
+            .andExpect(jsonPath("$.items[0].patientName").value("George Franklin"))
+            .andExpect(jsonPath("$.items[0].doctorName").value("James Carter"))
+            .andExpect(jsonPath("$.items[0].roomName").value("room 1"))
+            .andExpect(jsonPath("$.items[0].startTime").value("2019-04-22T09:00:00"))
+            .andExpect(jsonPath("$.total").doesNotExist())
+            .andExpect(jsonPath("$.next").value(endsWith("afterStartTime=2019-04-22T09:00&afterId=10")));
+    }
+
+    @Test
+    public void testGetStudyFields() throws Exception {
+        given(this.studyRepository.findById(10)).willReturn(Optional.of(study(10, START)));
+        mockMvc.perform(get("/api/v1/studies/{studyId}", 10).param("fields", "id,status"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(10))
+            .andExpect(jsonPath("$.status").value("planned"))
+            .andExpect(jsonPath("$.description").doesNotExist());
+    }
+
+    private static Study study(int id, LocalDateTime start) {
+        Patient patient = new Patient();
+        patient.setId(1);
+        patient.setName("George Franklin");
+        Doctor doctor = new Doctor();
+        doctor.setId(1);
+        doctor.setName("James Carter");
+        Room room = new Room();
+        room.setId(1);
+        room.setName("room 1");
+        Study study = new Study();
+        study.setId(id);
+        study.setPatient(patient);
+        study.setDoctor(doctor);
+        study.setRoom(room);
+        study.setDescription("MRT");
+        study.setStatus(Study.STATUS.planned);
+        study.setStartTime(start);
+        study.setEndTime(start.plusMinutes(30));
+        return study;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.Room;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.DaySummary;
+import com.caresyntax.studyscheduler.schedule.OccupancySummary;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static com.caresyntax.studyscheduler.system.StatementMatchers.maxStatements;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for {@link CalendarController}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(CalendarController.class)
+public class CalendarControllerTests {
+
+    private static final LocalDate MONDAY = LocalDate.of(2019, 4, 22);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OccupancySummary occupancySummary;
+    @MockBean
+    private StudyRepository studyRepository;
+    @MockBean
+    private DoctorRepository doctorRepository;
+    @MockBean
+    private RoomRepository roomRepository;
+
+    @Before
+    public void setup() {
+        Room room = new Room();
+        room.setId(3);
+        room.setName("room 3");
+        given(this.roomRepository.findAll()).willReturn(Collections.singletonList(room));
+        given(this.roomRepository.findById(3)).willReturn(Optional.of(room));
+    }
+
+    @Test
+    public void testGetWeek() throws Exception {
+        given(this.occupancySummary.getDays(OccupancySummary.Resource.room, 3, MONDAY, 7)).willReturn(Arrays.asList(
+            new DaySummary(MONDAY, 2, 300), DaySummary.empty(MONDAY.plusDays(1)), DaySummary.empty(MONDAY.plusDays(2)),
+            DaySummary.empty(MONDAY.plusDays(3)), DaySummary.empty(MONDAY.plusDays(4)),
+            DaySummary.empty(MONDAY.plusDays(5)), DaySummary.empty(MONDAY.plusDays(6))));
+
+        mockMvc.perform(get("/calendar/room/3").param("date", "2019-04-25"))
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("resourceName", "room 3"))
+            .andExpect(model().attribute("week", hasSize(7)))
+            .andExpect(model().attribute("previous", MONDAY.minusWeeks(1)))
+            .andExpect(content().string(containsString("5h 0m booked")))
+            .andExpect(content().string(containsString("50%")))
+            .andExpect(view().name("study/calendar"))
+            .andExpect(maxStatements(0));
+    }
+
+    @Test
+    public void testGetDay() throws Exception {
+        given(this.occupancySummary.getDay(OccupancySummary.Resource.room, 3, MONDAY)).willReturn(new DaySummary(MONDAY, 1, 30));
+        given(this.studyRepository.findStudies(any(), isNull(), isNull(), eq(501))).willReturn(Arrays.asList(
+            new StudyRow(6, 1, "George Franklin", 2, "Helen Leary", 3, "room 3", "ct", Study.STATUS.finished,
+                MONDAY.atTime(8, 0), MONDAY.atTime(8, 30)),
+            new StudyRow(7, 1, "George Franklin", 2, "Helen Leary", 3, "room 3", "x-ray", Study.STATUS.planned,
+                MONDAY.atTime(9, 0), MONDAY.atTime(9, 30))));
+
+        mockMvc.perform(get("/calendar/room/3").param("date", "2019-04-22").param("day", "true"))
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("summary", hasProperty("studies", is(1))))
+            .andExpect(model().attribute("studyList", hasSize(2)))
+            .andExpect(model().attribute("finishedStudies", 1L))
+            .andExpect(model().attribute("truncated", false))
+            .andExpect(content().string(containsString("George Franklin")))
+            .andExpect(content().string(containsString("1 active studies")))
+            .andExpect(content().string(containsString("also shows 1 finished studies")))
+            .andExpect(content().string(not(containsString("calendar-day-truncated"))))
+            .andExpect(view().name("study/calendar"));
+    }
+
+    @Test
+    public void testGetTruncatedDay() throws Exception {
+        given(this.occupancySummary.getDay(OccupancySummary.Resource.room, 3, MONDAY)).willReturn(new DaySummary(MONDAY, 501, 5010));
+        StudyRow row = new StudyRow(7, 1, "George Franklin", 2, "Helen Leary", 3, "room 3", "x-ray", Study.STATUS.planned,
+            MONDAY.atTime(9, 0), MONDAY.atTime(9, 10));
+        given(this.studyRepository.findStudies(any(), isNull(), isNull(), eq(501))).willReturn(Collections.nCopies(501, row));
+
+        mockMvc.perform(get("/calendar/room/3").param("date", "2019-04-22").param("day", "true"))
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("studyList", hasSize(500)))
+            .andExpect(model().attribute("truncated", true))
+            .andExpect(content().string(containsString("Only the first 500 studies of the day are listed.")));
+    }
+
+    @Test
+    public void testGetUnknownResource() throws Exception {
+        mockMvc.perform(get("/calendar/doctor/42"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/calendar/room/42").param("day", "true"))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.Study;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Books studies from many threads at once through the controller against the real database. Bookings
+ * of the same doctor at the same time must leave exactly one study, while bookings that do not overlap
+ * must all succeed.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.javax.cache.uri=jcache://integration-tests")
+@AutoConfigureMockMvc
+public class ConcurrentBookingTests {
+
+    private static final int THREADS = 16;
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudyRepository studyRepository;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldBookSameDoctorAndTimeOnce() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2031, 3, 3, 10, 0);
+        List<Integer> statuses = book(i -> new Booking(i % 3 + 1, 4, i % 5 + 1, start.plusMinutes(i % 3 * 10)));
+
+        assertThat(statuses.stream().filter(status -> status == 302).count()).isEqualTo(1);
+        assertThat(statuses.stream().filter(status -> status == 200).count()).isEqualTo(THREADS - 1);
+        assertThat(bookedOf(4, start.toLocalDate().atStartOfDay())).hasSize(1);
+    }
+
+    @Test
+    public void shouldBookFreeTimesConcurrently() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2031, 4, 7, 8, 0);
+        List<Integer> statuses = book(i -> new Booking(i % 3 + 1, 5, i % 5 + 1, start.plusHours(i)));
+
+        assertThat(statuses).containsOnly(302);
+        assertThat(bookedOf(5, start.toLocalDate().atStartOfDay())).hasSize(THREADS);
+    }
+
+    private List<Integer> book(IntFunction<Booking> bookings) throws Exception {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Booking booking = bookings.apply(i);
+            Callable<Integer> task = () -> {
+                ready.countDown();
+                go.await();
+                return mockMvc.perform(post("/patient/{patientId}/study/new", booking.patient)
+                    .param("description", "concurrent")
+                    .param("status", "planned")
+                    .param("doctor", String.valueOf(booking.doctor))
+                    .param("room", String.valueOf(booking.room))
+                    .param("startTime", booking.start.format(FORMAT))
+                    .param("endTime", booking.start.plusMinutes(30).format(FORMAT)))
+                    .andReturn().getResponse().getStatus();
+            };
+            results.add(executor.submit(task));
+        }
+        ready.await();
+        go.countDown();
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<Integer> result : results) {
+            statuses.add(result.get());
+        }
+        return statuses;
+    }
+
+    private List<Study> bookedOf(int doctorId, LocalDateTime day) {
+        return studyRepository.findAll().stream().
+            filter(study -> study.getDoctor().getId() == doctorId).
+            filter(study -> !study.getStartTime().isBefore(day) && study.getStartTime().isBefore(day.plusDays(1))).
+            collect(Collectors.toList());
+    }
+
+    private static class Booking {
+
+        private final int patient;
+        private final int doctor;
+        private final int room;
+        private final LocalDateTime start;
+
+        Booking(int patient, int doctor, int room, LocalDateTime start) {
+            this.patient = patient;
+            this.doctor = doctor;
+            this.room = room;
+            this.start = start;
+        }
+    }
+}
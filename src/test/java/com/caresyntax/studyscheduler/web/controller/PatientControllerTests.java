@@ -16,8 +16,14 @@
 
 package com.caresyntax.studyscheduler.web.controller;
 
+import static com.caresyntax.studyscheduler.system.StatementMatchers.maxStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -26,7 +32,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
 import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.ArchivedStudy;
 import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.search.PatientSummary;
 import org.assertj.core.util.Lists;
 import org.junit.Before;
 import org.junit.Test;
@@ -34,10 +44,18 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -57,8 +75,13 @@ public class PatientControllerTests {
     @MockBean
     private PatientRepository patientRepository;
 
+    @MockBean
+    private StudyRepository studyRepository;
+
     private Patient george;
 
+    private PatientSummary georgeSummary;
+
     @Before
     public void setup() {
         george = new Patient();
@@ -66,7 +89,10 @@ public class PatientControllerTests {
         george.setName("George");
         george.setSex(Patient.SEX.male);
         george.setBirthDate(LocalDate.of(2015, 12, 01));
+        georgeSummary = PatientSummary.of(george);
         given(this.patientRepository.findById(TEST_PATIENT_ID)).willReturn(Optional.of(george));
+        given(this.patientRepository.findWithStudiesById(TEST_PATIENT_ID)).willReturn(Optional.of(george));
+        given(this.patientRepository.findSummariesByName(anyString(), any(Pageable.class))).willReturn(Page.empty());
     }
 
     @Test
@@ -109,15 +135,47 @@ public class PatientControllerTests {
 
     @Test
     public void testSearchPatientSuccess() throws Exception {
-        given(this.patientRepository.findByName("")).willReturn(Lists.newArrayList(george, george));
+        given(this.patientRepository.findSummariesByName(eq(""), any(Pageable.class)))
+            .willReturn(new PageImpl<>(Lists.newArrayList(georgeSummary, georgeSummary), PageRequest.of(0, 20), 2));
         mockMvc.perform(get("/patient"))
             .andExpect(status().isOk())
+            .andExpect(model().attributeExists("selections", "page"))
+            .andExpect(model().attributeDoesNotExist("nextPage"))
+            .andExpect(maxStatements(0))
+            .andExpect(view().name("patient/patientList"));
+    }
+
+    @Test
+    public void testSearchPatientFirstPage() throws Exception {
+        given(this.patientRepository.findSummariesByName(eq(""), eq(PageRequest.of(0, 2, Sort.by("name")))))
+            .willReturn(new PageImpl<>(Lists.newArrayList(georgeSummary, georgeSummary), PageRequest.of(0, 2), 5));
+        mockMvc.perform(get("/patient")
+            .param("size", "2")
+            .param("sort", "name")
+        )
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("page", hasProperty("totalElements", is(5L))))
+            .andExpect(model().attribute("nextPage", containsString("page=1")))
+            .andExpect(view().name("patient/patientList"));
+    }
+
+    @Test
+    public void testSearchPatientUnsupportedSort() throws Exception {
+        given(this.patientRepository.findSummariesByName(eq(""), eq(PageRequest.of(0, 20, Sort.by("name")))))
+            .willReturn(new PageImpl<>(Lists.newArrayList(georgeSummary, georgeSummary), PageRequest.of(0, 20), 2));
+        mockMvc.perform(get("/patient")
+            .param("sort", "foo,desc")
+            .param("sort", "name")
+        )
+            .andExpect(status().isOk())
+            .andExpect(model().attributeExists("selections"))
             .andExpect(view().name("patient/patientList"));
     }
 
     @Test
     public void testSearchPatientByName() throws Exception {
-        given(this.patientRepository.findByName(george.getName())).willReturn(Lists.newArrayList(george));
+        given(this.patientRepository.findSummariesByName(eq(george.getName()), any(Pageable.class)))
+            .willReturn(new PageImpl<>(Lists.newArrayList(georgeSummary)));
         mockMvc.perform(get("/patient")
             .param("name", george.getName())
         )
@@ -136,6 +194,17 @@ public class PatientControllerTests {
             .andExpect(view().name("patient/findPatients"));
     }
 
+    @Test
+    public void testSearchPatientBySimilarName() throws Exception {
+        given(this.patientRepository.findSimilarByName("Gorge", 20)).willReturn(Lists.newArrayList(georgeSummary));
+        mockMvc.perform(get("/patient")
+            .param("name", "Gorge")
+        )
+            .andExpect(status().isOk())
+            .andExpect(model().attributeExists("selections"))
+            .andExpect(view().name("patient/patientList"));
+    }
+
     @Test
     public void testGetPatientForm() throws Exception {
         mockMvc.perform(get("/patient/{patientId}/edit", TEST_PATIENT_ID))
@@ -177,7 +246,32 @@ public class PatientControllerTests {
             .andExpect(model().attribute("patient", hasProperty("name", is("George"))))
             .andExpect(model().attribute("patient", hasProperty("sex", is(Patient.SEX.male))))
             .andExpect(model().attribute("patient", hasProperty("birthDate", is(LocalDate.of(2015, 12, 01)))))
+            .andExpect(maxStatements(0))
             .andExpect(view().name("patient/patientDetails"));
     }
 
+    @Test
+    public void testShowPatientWithArchivedStudies() throws Exception {
+        ArchivedStudy archived = new ArchivedStudy();
+        archived.setId(1);
+        archived.setDescription("X-ray");
+        archived.setStatus(Study.STATUS.finished);
+        archived.setStartTime(LocalDateTime.of(2018, 1, 10, 9, 0));
+        archived.setEndTime(LocalDateTime.of(2018, 1, 10, 10, 0));
+        Study current = new Study();
+        current.setId(2);
+        current.setDescription("MRT");
+        current.setStatus(Study.STATUS.planned);
+        current.setStartTime(LocalDateTime.of(2019, 5, 6, 9, 0));
+        current.setEndTime(LocalDateTime.of(2019, 5, 6, 10, 0));
+        george.setStudies(Lists.newArrayList(current));
+        given(this.studyRepository.findArchivedStudies(TEST_PATIENT_ID)).willReturn(Lists.newArrayList(archived));
+        MvcResult result = mockMvc.perform(get("/patient/{patientId}", TEST_PATIENT_ID))
+            .andExpect(status().isOk())
+            .andExpect(view().name("patient/patientDetails"))
+            .andReturn();
+        assertThat((List<?>) result.getModelAndView().getModel().get("studies")).
+            extracting("archived").containsExactly(true, false);
+    }
+
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.optimizer.OptimizedSchedule;
+import com.caresyntax.studyscheduler.optimizer.ScheduleConflictException;
+import com.caresyntax.studyscheduler.optimizer.ScheduleOptimizer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link ScheduleOptimizerController}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(ScheduleOptimizerController.class)
+public class ScheduleOptimizerControllerTests {
+
+    private static final String REQUESTS = "[{\"patientId\":1,\"description\":\"MRT\",\"day\":\"2030-05-06\",\"minutes\":45}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ScheduleOptimizer scheduleOptimizer;
+
+    @Test
+    public void testOptimize() throws Exception {
+        OptimizedSchedule schedule = new OptimizedSchedule();
+        given(this.scheduleOptimizer.optimize(argThat(requests -> requests.size() == 1 &&
+            requests.get(0).getDay().equals(LocalDate.of(2030, 5, 6)) && requests.get(0).getMinutes() == 45))).
+            willReturn(schedule);
+        mockMvc.perform(post("/studies/optimize")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(REQUESTS)
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.assignments").isEmpty());
+        verify(this.scheduleOptimizer).save(schedule);
+    }
+
+    @Test
+    public void testOptimizeDryRun() throws Exception {
+        given(this.scheduleOptimizer.optimize(any())).willReturn(new OptimizedSchedule());
+        mockMvc.perform(post("/studies/optimize")
+            .param("dryRun", "true")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(REQUESTS)
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.saved").value(false));
+        verify(this.scheduleOptimizer, never()).save(any());
+    }
+
+    @Test
+    public void testOptimizeOvertaken() throws Exception {
+        given(this.scheduleOptimizer.optimize(any())).willReturn(new OptimizedSchedule());
+        willThrow(new ScheduleConflictException("overlaps")).given(this.scheduleOptimizer).save(any());
+        mockMvc.perform(post("/studies/optimize")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(REQUESTS)
+        )
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testOptimizeFailed() {
+        given(this.scheduleOptimizer.optimize(any())).willReturn(new OptimizedSchedule());
+        willThrow(new IllegalStateException("failed")).given(this.scheduleOptimizer).save(any());
+        assertThatThrownBy(() -> mockMvc.perform(post("/studies/optimize")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(REQUESTS)
+        )).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.PatientRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.model.Study;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.caresyntax.studyscheduler.system.StatementMatchers.maxStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of SQL statements of the pages against N+1 regressions. The statements are counted
+ * against the real database with more studies than a page shows, and the budgets allow for cold caches
+ * of the reference data and entities. The second-level cache is kept apart from the one of the other test
+ * contexts, which share the caching provider of the JVM.
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.javax.cache.uri=jcache://integration-tests")
+@AutoConfigureMockMvc
+public class StatementBudgetTests {
+
+    private static final int STUDIES = 60;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private StudyRepository studyRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Study study;
+
+    @Before
+    public void setup() {
+        List<Study> existing = studyRepository.findByPatientId(1);
+        if (!existing.isEmpty() && existing.get(0).getStartTime().equals(START)) {
+            study = existing.get(0);
+            return;
+        }
+        for (int i = 0; i < STUDIES; i++) {
+            Study next = new Study();
+            next.setDescription("study " + i);
+            next.setStatus(Study.STATUS.planned);
+            next.setPatient(patientRepository.findById(i % 3 + 1).get());
+            next.setDoctor(doctorRepository.findById(i % 6 + 1).get());
+            next.setRoom(roomRepository.findById(i % 5 + 1).get());
+            next.setStartTime(START.plusHours(i));
+            next.setEndTime(START.plusHours(i).plusMinutes(30));
+            studyRepository.save(next);
+            if (study == null) study = next;
+        }
+    }
+
+    @Test
+    public void studyList() throws Exception {
+        mockMvc.perform(get("/studies"))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(3));
+        mockMvc.perform(get("/studies").param("stream", "true"))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(3));
+    }
+
+    @Test
+    public void patientList() throws Exception {
+        mockMvc.perform(get("/patient"))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(0));
+    }
+
+    @Test
+    public void patientDetails() throws Exception {
+        mockMvc.perform(get("/patient/{patientId}", 1))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(1));
+    }
+
+    @Test
+    public void studyForms() throws Exception {
+        mockMvc.perform(get("/patient/{patientId}/study/new", 1))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(3));
+        mockMvc.perform(get("/patient/{patientId}/study/{studyId}/edit", 1, study.getId()))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(4));
+        mockMvc.perform(post("/patient/{patientId}/study/{studyId}/edit", 1, study.getId())
+            .param("description", "moved")
+            .param("status", "planned")
+            .param("doctor", "1")
+            .param("room", "1")
+            .param("startTime", "2030-02-01 09:00")
+            .param("endTime", "2030-02-01 09:30"))
+            .andExpect(status().is3xxRedirection())
+            .andExpect(maxStatements(5));
+    }
+
+    @Test
+    public void calendar() throws Exception {
+        mockMvc.perform(get("/calendar/room/{roomId}", 1).param("date", "2030-01-07"))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(2));
+        mockMvc.perform(get("/calendar/room/{roomId}", 1).param("date", "2030-01-07").param("day", "true"))
+            .andExpect(status().isOk())
+            .andExpect(maxStatements(3));
+    }
+}
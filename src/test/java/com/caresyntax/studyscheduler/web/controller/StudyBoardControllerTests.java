@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.board.StudyBoard;
+import com.caresyntax.studyscheduler.dao.DoctorRepository;
+import com.caresyntax.studyscheduler.dao.RoomRepository;
+import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.Study;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+
+import static com.caresyntax.studyscheduler.system.StatementMatchers.maxStatements;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for {@link StudyBoardController}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(StudyBoardController.class)
+public class StudyBoardControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudyBoard studyBoard;
+    @MockBean
+    private StudyRepository studyRepository;
+    @MockBean
+    private DoctorRepository doctorRepository;
+    @MockBean
+    private RoomRepository roomRepository;
+
+    @Test
+    public void testGetBoard() throws Exception {
+        LocalDateTime nine = LocalDateTime.of(2019, 4, 22, 9, 0);
+        given(this.studyRepository.findStudies(any(), isNull(), isNull(), eq(500))).willReturn(Collections.singletonList(
+            new StudyRow(7, 1, "George Franklin", 2, "Helen Leary", 3, "room 3", "x-ray", Study.STATUS.planned,
+                nine, nine.plusMinutes(30))));
+
+        mockMvc.perform(get("/studies/board").param("date", "2019-04-22").param("roomId", "3"))
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("studyList", hasSize(1)))
+            .andExpect(content().string(containsString("id=\"study-7\"")))
+            .andExpect(content().string(containsString("roomId=3\");")))
+            .andExpect(view().name("study/board"))
+            .andExpect(maxStatements(0));
+    }
+
+    @Test
+    public void testSubscribe() throws Exception {
+        given(this.studyBoard.subscribe(isNull(), eq(3))).willReturn(Optional.of(new SseEmitter()));
+
+        mockMvc.perform(get("/studies/board/events").param("roomId", "3"))
+            .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    public void testSubscribeTooManyBoards() throws Exception {
+        given(this.studyBoard.subscribe(isNull(), isNull())).willReturn(Optional.empty());
+
+        mockMvc.perform(get("/studies/board/events"))
+            .andExpect(status().isServiceUnavailable());
+    }
+}
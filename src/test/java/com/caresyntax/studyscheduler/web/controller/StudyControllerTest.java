@@ -19,22 +19,43 @@ import com.caresyntax.studyscheduler.dao.DoctorRepository;
 import com.caresyntax.studyscheduler.dao.PatientRepository;
 import com.caresyntax.studyscheduler.dao.RoomRepository;
 import com.caresyntax.studyscheduler.dao.StudyRepository;
+import com.caresyntax.studyscheduler.dao.StudyRow;
+import com.caresyntax.studyscheduler.model.Doctor;
 import com.caresyntax.studyscheduler.model.Patient;
+import com.caresyntax.studyscheduler.model.Room;
 import com.caresyntax.studyscheduler.model.Study;
+import com.caresyntax.studyscheduler.schedule.Slot;
+import com.caresyntax.studyscheduler.schedule.SlotFinder;
+import com.caresyntax.studyscheduler.system.SchedulingMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+import static com.caresyntax.studyscheduler.system.StatementMatchers.maxStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -64,6 +85,8 @@ public class StudyControllerTest {
     private DoctorRepository doctorRepository;
     @MockBean
     private RoomRepository roomRepository;
+    @MockBean
+    private SlotFinder slotFinder;
 
     private Study study1;
 
@@ -83,6 +106,7 @@ public class StudyControllerTest {
         study1.setDescription("study1");
         study1.setPatient(george);
         given(this.studyRepository.findById(TEST_STUDY_ID)).willReturn(Optional.of(study1));
+        given(this.studyRepository.saveIfFree(notNull())).willReturn(true);
     }
 
     @Test
@@ -92,6 +116,34 @@ public class StudyControllerTest {
             .andExpect(view().name("study/studyList"));
     }
 
+    @Test
+    public void testGetStudyListFormRows() throws Exception {
+        StudyRow row = new StudyRow(TEST_STUDY_ID, TEST_PATIENT_ID, "George", 2, "Helen Leary", 3, "room 3",
+            "study1", Study.STATUS.planned, LocalDateTime.of(2019, 4, 22, 9, 0), null);
+        given(this.studyRepository.findStudies(notNull(), isNull(), isNull(), eq(51))).
+            willReturn(Collections.singletonList(row));
+        mockMvc.perform(get("/studies"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("/patient/1/study/1/edit?source=studyList")))
+            .andExpect(content().string(containsString("Helen Leary")))
+            .andExpect(content().string(containsString("room 3")))
+            .andExpect(content().string(containsString("2019-04-22 09:00")))
+            .andExpect(model().attributeDoesNotExist("nextPage"))
+            .andExpect(maxStatements(0))
+            .andExpect(view().name("study/studyList"));
+    }
+
+    @Test
+    public void testGetStudyListFormStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        given(this.studyRepository.streamStudies(notNull())).willReturn(Stream.<StudyRow>empty().onClose(() -> closed.set(true)));
+        mockMvc.perform(get("/studies").param("stream", "true"))
+            .andExpect(status().isOk())
+            .andExpect(model().attributeExists("studyList"))
+            .andExpect(view().name("study/studyList"));
+        assertThat(closed).isTrue();
+    }
+
     @Test
     public void testGetNewStudyForm() throws Exception {
         mockMvc.perform(post("/patient/{patientId}/study/new", TEST_STUDY_ID))
@@ -119,18 +171,143 @@ public class StudyControllerTest {
             .andExpect(status().is3xxRedirection());
     }
 
+    @Test
+    public void testUpdateStudyFormChangedMeanwhile() throws Exception {
+        study1.setVersion(3);
+        given(this.studyRepository.saveIfFree(notNull())).
+            willThrow(new ObjectOptimisticLockingFailureException(Study.class, TEST_STUDY_ID));
+        mockMvc.perform(post("/patient/{patientId}/study/{studyId}/edit", TEST_PATIENT_ID, TEST_STUDY_ID)
+            .param("id", String.valueOf(TEST_STUDY_ID))
+            .param("version", "2")
+            .param("description", "desc1")
+            .param("startTime", "2019-04-21 18:25")
+            .param("status", "planned")
+        )
+            .andExpect(status().isOk())
+            .andExpect(model().attributeHasErrors("study"))
+            .andExpect(model().attribute("study", hasProperty("version", is(3))))
+            .andExpect(model().attribute("study", hasProperty("description", is("study1"))))
+            .andExpect(content().string(containsString("changed by someone else")))
+            .andExpect(view().name(StudyController.CREATE_OR_UPDATE_STUDY_FORM));
+    }
+
+    @Test
+    public void testGetArchivedStudyForm() throws Exception {
+        mockMvc.perform(get("/patient/{patientId}/study/{studyId}/edit", TEST_PATIENT_ID, 2))
+            .andExpect(status().is3xxRedirection())
+            .andExpect(view().name("redirect:/patient/{patientId}"));
+    }
+
+    @Test
+    public void testUpdateStudyFormArchivedMeanwhile() throws Exception {
+        given(this.studyRepository.saveIfFree(notNull())).
+            willThrow(new ObjectOptimisticLockingFailureException(Study.class, 2));
+        mockMvc.perform(post("/patient/{patientId}/study/{studyId}/edit", TEST_PATIENT_ID, 2)
+            .param("id", "2")
+            .param("version", "0")
+            .param("description", "desc1")
+            .param("startTime", "2019-04-21 18:25")
+            .param("status", "planned")
+        )
+            .andExpect(status().is3xxRedirection())
+            .andExpect(view().name("redirect:/patient/{patientId}"));
+    }
+
     @Test
     public void testUpdateNewStudyFormIsIntersect() throws Exception {
-        given(this.studyRepository.isExistIntersectingStudies(notNull())).willReturn(true);
+        given(this.studyRepository.saveIfFree(notNull())).willReturn(false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            mockMvc.perform(post("/patient/{patientId}/study/new", TEST_PATIENT_ID)
+                .param("description", "desc1")
+                .param("startTime", "2019-04-21 18:25")
+                .param("status", "planned")
+            )
+                .andExpect(status().isOk())
+                .andExpect(view().name(StudyController.CREATE_OR_UPDATE_STUDY_FORM));
+
+            assertThat(registry.get(SchedulingMetrics.CONFLICT_REJECTIONS).tag("source", "form").counter().count()).
+                isEqualTo(1);
+            assertThat(registry.get(SchedulingMetrics.HTTP_STATEMENTS).
+                tag("uri", "/patient/{patientId}/study/new").tag("method", "POST").summary().count()).isEqualTo(1);
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    public void testUpdateNewStudyFormEndBeforeStart() throws Exception {
         mockMvc.perform(post("/patient/{patientId}/study/new", TEST_PATIENT_ID)
             .param("description", "desc1")
             .param("startTime", "2019-04-21 18:25")
+            .param("endTime", "2019-04-21 18:00")
             .param("status", "planned")
         )
             .andExpect(status().isOk())
+            .andExpect(model().attributeHasFieldErrorCode("study", "endTime", "error.endTime"))
+            .andExpect(view().name(StudyController.CREATE_OR_UPDATE_STUDY_FORM));
+    }
+
+    @Test
+    public void testGetFreeSlots() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2019, 4, 22, 8, 0);
+        given(this.slotFinder.findFreeSlots(eq(TEST_PATIENT_ID), eq(2), eq(3), isNull(), eq(Duration.ofMinutes(45)),
+            eq(from), eq(from.plusDays(14)), eq(5))).
+            willReturn(Collections.singletonList(new Slot(from.plusHours(1), from.plusMinutes(105))));
+        mockMvc.perform(get("/slots/free")
+            .param("patientId", String.valueOf(TEST_PATIENT_ID))
+            .param("doctorId", "2")
+            .param("roomId", "3")
+            .param("minutes", "45")
+            .param("from", "2019-04-22 08:00")
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].startTime").value("2019-04-22 09:00"))
+            .andExpect(jsonPath("$[0].endTime").value("2019-04-22 09:45"));
+    }
+
+    @Test
+    public void testGetFreeSlotsTooLong() throws Exception {
+        mockMvc.perform(get("/slots/free").param("minutes", String.valueOf(13 * 60)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetNewStudyFormWithFreeSlot() throws Exception {
+        Doctor doctor = new Doctor();
+        doctor.setId(2);
+        Room room = new Room();
+        room.setId(3);
+        given(this.doctorRepository.findAll()).willReturn(Collections.singletonList(doctor));
+        given(this.roomRepository.findAll()).willReturn(Collections.singletonList(room));
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 8, 0);
+        given(this.slotFinder.findFreeSlots(eq(TEST_PATIENT_ID), eq(2), eq(3), isNull(), any(), any(), any(), eq(1))).
+            willReturn(Collections.singletonList(new Slot(start, start.plusMinutes(30))));
+        mockMvc.perform(get("/patient/{patientId}/study/new", TEST_PATIENT_ID))
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("study", hasProperty("startTime", is(start))))
+            .andExpect(model().attribute("study", hasProperty("endTime", is(start.plusMinutes(30)))))
             .andExpect(view().name(StudyController.CREATE_OR_UPDATE_STUDY_FORM));
     }
 
+    @Test
+    public void testUpdateNewStudyFormIsIntersectOffersFreeSlots() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2019, 4, 21, 18, 25);
+        given(this.studyRepository.saveIfFree(notNull())).willReturn(false);
+        given(this.slotFinder.findFreeSlots(eq(TEST_PATIENT_ID), any(), any(), any(), eq(Duration.ofMinutes(20)),
+            eq(start), any(), eq(5))).
+            willReturn(Collections.singletonList(new Slot(start.plusMinutes(20), start.plusMinutes(40))));
+        mockMvc.perform(post("/patient/{patientId}/study/new", TEST_PATIENT_ID)
+            .param("description", "desc1")
+            .param("startTime", "2019-04-21 18:25")
+            .param("endTime", "2019-04-21 18:45")
+            .param("status", "planned")
+        )
+            .andExpect(status().isOk())
+            .andExpect(model().attribute("freeSlots", hasSize(1)))
+            .andExpect(content().string(containsString("data-start=\"2019-04-21 18:45\"")));
+    }
 
 }
 
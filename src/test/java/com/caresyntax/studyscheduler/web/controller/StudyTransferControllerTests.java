@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019-present Mike Adamenko (mnadamenko@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.caresyntax.studyscheduler.web.controller;
+
+import com.caresyntax.studyscheduler.transfer.CsvStudyRecordReader;
+import com.caresyntax.studyscheduler.transfer.ExportFormat;
+import com.caresyntax.studyscheduler.transfer.ImportResult;
+import com.caresyntax.studyscheduler.transfer.JsonStudyRecordReader;
+import com.caresyntax.studyscheduler.transfer.StudyExporter;
+import com.caresyntax.studyscheduler.transfer.StudyImporter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link StudyTransferController}
+ *
+ * @author Mike Adamenko (mnadamenko@gmail.com)
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(StudyTransferController.class)
+public class StudyTransferControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudyImporter studyImporter;
+
+    @MockBean
+    private StudyExporter studyExporter;
+
+    @Test
+    public void testImportCsv() throws Exception {
+        given(this.studyImporter.importStudies(any(CsvStudyRecordReader.class))).willReturn(new ImportResult());
+        mockMvc.perform(post("/studies/import")
+            .contentType("text/csv")
+            .content("patientId,doctorId,roomId,startTime,description\n1,1,1,2030-01-07 08:00,MRT\n")
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(0))
+            .andExpect(jsonPath("$.errors").isEmpty());
+    }
+
+    @Test
+    public void testImportJson() throws Exception {
+        given(this.studyImporter.importStudies(any(JsonStudyRecordReader.class))).willReturn(new ImportResult());
+        mockMvc.perform(post("/studies/import")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[]")
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rejected").value(0));
+    }
+
+    @Test
+    public void testImportUnsupportedFormat() throws Exception {
+        mockMvc.perform(post("/studies/import")
+            .contentType(MediaType.APPLICATION_XML)
+            .content("<studies/>")
+        )
+            .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    public void testExportStudies() throws Exception {
+        willAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).given(this.studyExporter).exportStudies(argThat(filter -> filter.getDoctorId() == 1), eq(ExportFormat.csv), any());
+        mockMvc.perform(get("/studies/export").param("doctorId", "1"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv;charset=UTF-8"))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"studies.csv\""))
+            .andExpect(content().string("id\n1\n"));
+    }
+
+    @Test
+    public void testExportPatientsCompressed() throws Exception {
+        willAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).given(this.studyExporter).exportPatients(eq(ExportFormat.ndjson), any());
+        MvcResult result = mockMvc.perform(get("/patient/export")
+            .param("format", "ndjson")
+            .header("Accept-Encoding", "gzip, deflate")
+        )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andReturn();
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            byte[] buffer = new byte[100];
+            int length = input.read(buffer);
+            assertEquals("{\"id\":1}\n", new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testExportUnknownFormat() throws Exception {
+        mockMvc.perform(get("/studies/export").param("format", "xml"))
+            .andExpect(status().isBadRequest());
+    }
+}